@@ -3,12 +3,14 @@ package com.marketplace;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application for Car Marketplace and Rental Platform
  */
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class
 CarMarketplaceApplication {
     
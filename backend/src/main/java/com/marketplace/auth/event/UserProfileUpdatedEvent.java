@@ -0,0 +1,8 @@
+package com.marketplace.auth.event;
+
+/**
+ * Published inside the transaction that changes a user's name or phone.
+ * Caches holding copies of those details should drop them after commit.
+ */
+public record UserProfileUpdatedEvent(Long userId) {
+}
@@ -3,10 +3,12 @@ package com.marketplace.auth.service;
 import com.marketplace.auth.dto.UserDTO;
 import com.marketplace.auth.entity.Role;
 import com.marketplace.auth.entity.User;
+import com.marketplace.auth.event.UserProfileUpdatedEvent;
 import com.marketplace.auth.repository.UserRepository;
 import com.marketplace.common.exception.BadRequestException;
 import com.marketplace.common.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +25,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public UserDTO.ProfileResponse getProfile(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -54,6 +59,7 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileUpdatedEvent(userId));
         return convertToProfileResponse(user);
     }
 
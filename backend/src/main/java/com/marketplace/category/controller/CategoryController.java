@@ -4,12 +4,15 @@ import com.marketplace.category.dto.CategoryDTO;
 import com.marketplace.category.service.CategoryService;
 import com.marketplace.common.constants.Constants;
 import com.marketplace.common.payload.ApiResponse;
+import com.marketplace.common.util.ConditionalGet;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,28 +24,36 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
-    // Public endpoints
+    @Value("${http.cache.catalog-max-age-s:3600}")
+    private long catalogMaxAgeSeconds;
+
+    // Public endpoints (conditional GET: 304 when the catalog has not changed)
     @GetMapping("/makes")
-    public ResponseEntity<ApiResponse<List<CategoryDTO.MakeResponse>>> getAllMakes() {
-        List<CategoryDTO.MakeResponse> makes = categoryService.getAllMakes();
-        return ResponseEntity.ok(
-                ApiResponse.success(Constants.STATUS_SUCCESS, "Makes retrieved successfully", makes));
+    public ResponseEntity<ApiResponse<List<CategoryDTO.MakeResponse>>> getAllMakes(WebRequest request) {
+        return ConditionalGet.respond(request, categoryService.getMakesValidator(),
+                ConditionalGet.publicFor(catalogMaxAgeSeconds),
+                () -> ApiResponse.success(Constants.STATUS_SUCCESS, "Makes retrieved successfully",
+                        categoryService.getAllMakes()));
     }
 
     @GetMapping("/makes/{id}")
     public ResponseEntity<ApiResponse<CategoryDTO.MakeWithModelsResponse>> getMakeWithModels(
-            @PathVariable Long id) {
-        CategoryDTO.MakeWithModelsResponse make = categoryService.getMakeWithModels(id);
-        return ResponseEntity.ok(
-                ApiResponse.success(Constants.STATUS_SUCCESS, "Make details retrieved successfully", make));
+            @PathVariable Long id,
+            WebRequest request) {
+        return ConditionalGet.respond(request, categoryService.getMakeValidator(id),
+                ConditionalGet.publicFor(catalogMaxAgeSeconds),
+                () -> ApiResponse.success(Constants.STATUS_SUCCESS, "Make details retrieved successfully",
+                        categoryService.getMakeWithModels(id)));
     }
 
     @GetMapping("/makes/{id}/models")
     public ResponseEntity<ApiResponse<List<CategoryDTO.ModelResponse>>> getModelsByMake(
-            @PathVariable Long id) {
-        List<CategoryDTO.ModelResponse> models = categoryService.getModelsByMake(id);
-        return ResponseEntity.ok(
-                ApiResponse.success(Constants.STATUS_SUCCESS, "Models retrieved successfully", models));
+            @PathVariable Long id,
+            WebRequest request) {
+        return ConditionalGet.respond(request, categoryService.getMakeValidator(id),
+                ConditionalGet.publicFor(catalogMaxAgeSeconds),
+                () -> ApiResponse.success(Constants.STATUS_SUCCESS, "Models retrieved successfully",
+                        categoryService.getModelsByMake(id)));
     }
 
     // Admin endpoints
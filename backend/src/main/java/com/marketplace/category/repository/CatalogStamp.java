@@ -0,0 +1,15 @@
+package com.marketplace.category.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count, id sum and newest update of a set of catalog rows; any insert,
+ * delete or update changes at least one of them. Used as an ETag version.
+ */
+public interface CatalogStamp {
+    Long getCount();
+
+    Long getIdSum();
+
+    LocalDateTime getLastModified();
+}
@@ -2,8 +2,11 @@ package com.marketplace.category.repository;
 
 import com.marketplace.category.entity.Make;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +14,10 @@ public interface MakeRepository extends JpaRepository<Make, Long> {
     Optional<Make> findByName(String name);
 
     boolean existsByName(String name);
+
+    @Query("SELECT COUNT(m) AS count, SUM(m.id) AS idSum, MAX(m.updatedAt) AS lastModified FROM Make m")
+    CatalogStamp stampAll();
+
+    @Query("SELECT COALESCE(m.updatedAt, m.createdAt) FROM Make m WHERE m.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
 }
@@ -2,6 +2,8 @@ package com.marketplace.category.repository;
 
 import com.marketplace.category.entity.Model;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,11 @@ public interface ModelRepository extends JpaRepository<Model, Long> {
     Optional<Model> findByMakeIdAndName(Long makeId, String name);
 
     boolean existsByMakeIdAndName(Long makeId, String name);
+
+    @Query("SELECT COUNT(m) AS count, SUM(m.id) AS idSum, MAX(m.updatedAt) AS lastModified FROM Model m")
+    CatalogStamp stampAll();
+
+    @Query("SELECT COUNT(m) AS count, SUM(m.id) AS idSum, MAX(m.updatedAt) AS lastModified " +
+            "FROM Model m WHERE m.make.id = :makeId")
+    CatalogStamp stampByMakeId(@Param("makeId") Long makeId);
 }
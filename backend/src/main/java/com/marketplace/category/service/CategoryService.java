@@ -3,14 +3,17 @@ package com.marketplace.category.service;
 import com.marketplace.category.dto.CategoryDTO;
 import com.marketplace.category.entity.Make;
 import com.marketplace.category.entity.Model;
+import com.marketplace.category.repository.CatalogStamp;
 import com.marketplace.category.repository.MakeRepository;
 import com.marketplace.category.repository.ModelRepository;
 import com.marketplace.common.exception.BadRequestException;
 import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.util.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -47,6 +50,28 @@ public class CategoryService {
                 .build();
     }
 
+    // ─── VALIDATORS (conditional GET, no entity loading) ─────
+
+    /** Makes list: the make rows plus model count, which feeds each make's modelCount */
+    @Transactional(readOnly = true)
+    public ConditionalGet.Validator getMakesValidator() {
+        CatalogStamp makes = makeRepository.stampAll();
+        CatalogStamp models = modelRepository.stampAll();
+        return ConditionalGet.Validator.of("makes",
+                makes.getCount(), makes.getIdSum(), makes.getLastModified(),
+                models.getCount(), models.getIdSum());
+    }
+
+    /** A make with its models; also covers the models list, which carries the make name */
+    @Transactional(readOnly = true)
+    public ConditionalGet.Validator getMakeValidator(Long makeId) {
+        LocalDateTime makeUpdatedAt = makeRepository.findUpdatedAtById(makeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Make not found"));
+        CatalogStamp models = modelRepository.stampByMakeId(makeId);
+        return ConditionalGet.Validator.of("make-" + makeId,
+                makeUpdatedAt, models.getCount(), models.getIdSum(), models.getLastModified());
+    }
+
     public CategoryDTO.MakeResponse createMake(CategoryDTO.MakeRequest request) {
         if (makeRepository.existsByName(request.getName())) {
             throw new BadRequestException("Make already exists");
@@ -0,0 +1,87 @@
+package com.marketplace.commission.controller;
+
+import com.marketplace.commission.dto.CommissionDTO;
+import com.marketplace.commission.entity.DriverTier;
+import com.marketplace.commission.service.CommissionService;
+import com.marketplace.common.constants.Constants;
+import com.marketplace.common.payload.ApiResponse;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/commission")
+public class CommissionController {
+
+    @Autowired
+    private CommissionService commissionService;
+
+    /**
+     * GET /api/commission/quote?fare=&vehicleType=&tier=&lat=&lng=
+     * Commission and driver earning for a fare under the current rules (evaluated in memory).
+     */
+    @GetMapping("/quote")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CommissionDTO.QuoteResponse>> quote(
+            @RequestParam BigDecimal fare,
+            @RequestParam(required = false) String vehicleType,
+            @RequestParam(required = false) DriverTier tier,
+            @RequestParam(required = false) BigDecimal lat,
+            @RequestParam(required = false) BigDecimal lng) {
+
+        CommissionDTO.QuoteResponse response =
+                commissionService.quote(vehicleType, tier, lat, lng, fare, LocalDateTime.now());
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+
+    // ─── ADMIN ───────────────────────────────────────────────
+
+    @GetMapping("/rules")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<CommissionDTO.RuleResponse>>> getAllRules() {
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, commissionService.getAllRules()));
+    }
+
+    @PostMapping("/rules")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<CommissionDTO.RuleResponse>> createRule(
+            @Valid @RequestBody CommissionDTO.RuleRequest request) {
+
+        CommissionDTO.RuleResponse response = commissionService.createRule(request);
+
+        return new ResponseEntity<>(
+                ApiResponse.success(Constants.STATUS_CREATED, "Commission rule created", response),
+                HttpStatus.CREATED);
+    }
+
+    @PutMapping("/rules/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<CommissionDTO.RuleResponse>> updateRule(
+            @PathVariable Long id,
+            @Valid @RequestBody CommissionDTO.RuleRequest request) {
+
+        CommissionDTO.RuleResponse response = commissionService.updateRule(id, request);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, "Commission rule updated", response));
+    }
+
+    @DeleteMapping("/rules/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> deleteRule(@PathVariable Long id) {
+        commissionService.deleteRule(id);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, "Commission rule deleted"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.marketplace.commission.dto;
+
+import com.marketplace.commission.entity.DriverTier;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class CommissionDTO {
+
+    /** Admin creates or replaces a rule */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleRequest {
+        @NotBlank(message = "Name is required")
+        private String name;
+
+        @NotNull(message = "Rate is required")
+        @DecimalMin(value = "0.00", message = "Rate must be between 0 and 100")
+        @DecimalMax(value = "100.00", message = "Rate must be between 0 and 100")
+        private BigDecimal ratePercent;
+
+        private Integer priority;
+        private Boolean isActive;
+
+        // Conditions (all optional)
+        private String vehicleType;
+        private DriverTier driverTier;
+
+        @Min(0) @Max(23)
+        private Integer startHour;
+
+        @Min(0) @Max(23)
+        private Integer endHour;
+
+        private BigDecimal minLat;
+        private BigDecimal maxLat;
+        private BigDecimal minLng;
+        private BigDecimal maxLng;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleResponse {
+        private Long id;
+        private String name;
+        private BigDecimal ratePercent;
+        private Integer priority;
+        private Boolean isActive;
+        private String vehicleType;
+        private DriverTier driverTier;
+        private Integer startHour;
+        private Integer endHour;
+        private BigDecimal minLat;
+        private BigDecimal maxLat;
+        private BigDecimal minLng;
+        private BigDecimal maxLng;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+
+    /** Commission for a fare under the current rules */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QuoteResponse {
+        private BigDecimal fare;
+        private BigDecimal ratePercent;
+        private BigDecimal commissionAmount;
+        private BigDecimal driverEarning;
+        private Long ruleId; // null = default rate
+    }
+}
@@ -0,0 +1,79 @@
+package com.marketplace.commission.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A commission rate applied when all of its (optional) conditions match.
+ * Null conditions match anything.
+ */
+@Entity
+@Table(name = "commission_rules")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommissionRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "rate_percent", nullable = false, precision = 5, scale = 2)
+    private BigDecimal ratePercent;
+
+    // Higher wins; ties go to the rule with more conditions
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer priority = 0;
+
+    @Column(name = "is_active", nullable = false)
+    @Builder.Default
+    private Boolean isActive = true;
+
+    @Column(name = "vehicle_type", length = 20)
+    private String vehicleType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "driver_tier", length = 20)
+    private DriverTier driverTier;
+
+    // [startHour, endHour), wrapping past midnight when endHour <= startHour
+    @Column(name = "start_hour")
+    private Integer startHour;
+
+    @Column(name = "end_hour")
+    private Integer endHour;
+
+    // Pickup zone
+    @Column(name = "min_lat", precision = 10, scale = 8)
+    private BigDecimal minLat;
+
+    @Column(name = "max_lat", precision = 10, scale = 8)
+    private BigDecimal maxLat;
+
+    @Column(name = "min_lng", precision = 11, scale = 8)
+    private BigDecimal minLng;
+
+    @Column(name = "max_lng", precision = 11, scale = 8)
+    private BigDecimal maxLng;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.marketplace.commission.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Driver standing derived from rating and completed trips.
+ */
+public enum DriverTier {
+    STANDARD,
+    SILVER,
+    GOLD,
+    PLATINUM;
+
+    public static DriverTier of(BigDecimal rating, Integer totalTrips) {
+        double r = rating != null ? rating.doubleValue() : 0;
+        int trips = totalTrips != null ? totalTrips : 0;
+        if (r >= 4.8 && trips >= 500) return PLATINUM;
+        if (r >= 4.5 && trips >= 100) return GOLD;
+        if (r >= 4.0 && trips >= 20) return SILVER;
+        return STANDARD;
+    }
+}
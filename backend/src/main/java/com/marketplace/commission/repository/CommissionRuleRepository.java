@@ -0,0 +1,13 @@
+package com.marketplace.commission.repository;
+
+import com.marketplace.commission.entity.CommissionRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommissionRuleRepository extends JpaRepository<CommissionRule, Long> {
+
+    List<CommissionRule> findAllByOrderByPriorityDescIdAsc();
+}
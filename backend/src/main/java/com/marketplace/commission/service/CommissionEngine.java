@@ -0,0 +1,54 @@
+package com.marketplace.commission.service;
+
+import com.marketplace.commission.entity.DriverTier;
+import com.marketplace.commission.repository.CommissionRuleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates commission against the current compiled rule set.
+ *
+ * The rule set is immutable and swapped as a whole after every admin change, so
+ * evaluation never reads the database and never sees a half-applied edit.
+ */
+@Component
+@Slf4j
+public class CommissionEngine {
+
+    private final AtomicReference<CommissionRuleSet> current;
+
+    @Autowired
+    private CommissionRuleRepository ruleRepository;
+
+    public CommissionEngine(@Value("${commission.default-rate:15.00}") BigDecimal defaultRate) {
+        this.current = new AtomicReference<>(CommissionRuleSet.empty(defaultRate));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reload() {
+        CommissionRuleSet compiled = CommissionRuleSet.compile(ruleRepository.findAll(), current.get().getDefaultRate());
+        current.set(compiled);
+        log.info("Commission rules compiled: {} active", compiled.size());
+    }
+
+    public CommissionRuleSet.Match evaluate(String vehicleType, DriverTier tier, LocalDateTime at,
+                                            BigDecimal pickupLat, BigDecimal pickupLng) {
+        return current.get().evaluate(vehicleType, tier, at.getHour(),
+                pickupLat != null ? pickupLat.doubleValue() : Double.NaN,
+                pickupLng != null ? pickupLng.doubleValue() : Double.NaN);
+    }
+
+    public BigDecimal getDefaultRate() {
+        return current.get().getDefaultRate();
+    }
+}
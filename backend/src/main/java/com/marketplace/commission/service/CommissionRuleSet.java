@@ -0,0 +1,147 @@
+package com.marketplace.commission.service;
+
+import com.marketplace.commission.entity.CommissionRule;
+import com.marketplace.commission.entity.DriverTier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, pre-compiled form of the active commission rules.
+ *
+ * Rules are grouped by vehicle type (rules without a vehicle type are merged into
+ * every group) and sorted by precedence, so evaluation is one array scan of bit-mask
+ * and double comparisons with no allocation beyond the result.
+ */
+public final class CommissionRuleSet {
+
+    /** Rate to apply and the rule it came from ({@code ruleId} null = default rate) */
+    public record Match(BigDecimal ratePercent, Long ruleId) {
+    }
+
+    private record Compiled(Long ruleId, BigDecimal ratePercent, int tierMask, int hourMask,
+                            boolean hasZone, double minLat, double maxLat, double minLng, double maxLng) {
+
+        boolean matches(int tierBit, int hourBit, double lat, double lng) {
+            if ((tierMask & tierBit) == 0 || (hourMask & hourBit) == 0) return false;
+            if (!hasZone) return true;
+            // NaN (unknown position) fails every comparison, so zone rules never match it
+            return lat >= minLat && lat <= maxLat && lng >= minLng && lng <= maxLng;
+        }
+    }
+
+    private static final int ALL_TIERS = (1 << DriverTier.values().length) - 1;
+    private static final int ALL_HOURS = (1 << 24) - 1;
+    private static final Compiled[] NONE = new Compiled[0];
+
+    private final Map<String, Compiled[]> byVehicleType;
+    private final Compiled[] anyVehicleType;
+    private final Match defaultMatch;
+    private final int ruleCount;
+
+    private CommissionRuleSet(Map<String, Compiled[]> byVehicleType, Compiled[] anyVehicleType,
+                              BigDecimal defaultRate, int ruleCount) {
+        this.byVehicleType = byVehicleType;
+        this.anyVehicleType = anyVehicleType;
+        this.defaultMatch = new Match(defaultRate, null);
+        this.ruleCount = ruleCount;
+    }
+
+    public static CommissionRuleSet empty(BigDecimal defaultRate) {
+        return new CommissionRuleSet(Map.of(), NONE, defaultRate, 0);
+    }
+
+    /** Compile active rules; inactive ones are dropped */
+    public static CommissionRuleSet compile(List<CommissionRule> rules, BigDecimal defaultRate) {
+        List<CommissionRule> active = rules.stream()
+                .filter(r -> Boolean.TRUE.equals(r.getIsActive()))
+                .sorted(Comparator.comparing((CommissionRule r) -> r.getPriority() != null ? r.getPriority() : 0).reversed()
+                        .thenComparing(Comparator.comparingInt(CommissionRuleSet::specificity).reversed())
+                        .thenComparing(CommissionRule::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        List<Compiled> wildcard = new ArrayList<>();
+        Map<String, List<Compiled>> grouped = new HashMap<>();
+        // Walk in precedence order so every group stays sorted
+        for (CommissionRule rule : active) {
+            Compiled compiled = compileRule(rule);
+            String type = normalizeVehicleType(rule.getVehicleType());
+            if (type == null) {
+                wildcard.add(compiled);
+                grouped.values().forEach(list -> list.add(compiled));
+            } else {
+                grouped.computeIfAbsent(type, t -> new ArrayList<>(wildcard)).add(compiled);
+            }
+        }
+
+        Map<String, Compiled[]> byType = new HashMap<>();
+        grouped.forEach((type, list) -> byType.put(type, list.toArray(NONE)));
+        return new CommissionRuleSet(Map.copyOf(byType), wildcard.toArray(NONE), defaultRate, active.size());
+    }
+
+    public Match evaluate(String vehicleType, DriverTier tier, int hourOfDay, double lat, double lng) {
+        String type = normalizeVehicleType(vehicleType);
+        Compiled[] candidates = type != null ? byVehicleType.getOrDefault(type, anyVehicleType) : anyVehicleType;
+        int tierBit = 1 << (tier != null ? tier : DriverTier.STANDARD).ordinal();
+        int hourBit = 1 << hourOfDay;
+        for (Compiled rule : candidates) {
+            if (rule.matches(tierBit, hourBit, lat, lng)) {
+                return new Match(rule.ratePercent(), rule.ruleId());
+            }
+        }
+        return defaultMatch;
+    }
+
+    public int size() {
+        return ruleCount;
+    }
+
+    public BigDecimal getDefaultRate() {
+        return defaultMatch.ratePercent();
+    }
+
+    // ─── COMPILATION ─────────────────────────────────────────
+
+    private static Compiled compileRule(CommissionRule rule) {
+        int tierMask = rule.getDriverTier() != null ? 1 << rule.getDriverTier().ordinal() : ALL_TIERS;
+        boolean hasZone = rule.getMinLat() != null && rule.getMaxLat() != null
+                && rule.getMinLng() != null && rule.getMaxLng() != null;
+        return new Compiled(rule.getId(), rule.getRatePercent(), tierMask, hourMask(rule.getStartHour(), rule.getEndHour()),
+                hasZone,
+                hasZone ? rule.getMinLat().doubleValue() : 0, hasZone ? rule.getMaxLat().doubleValue() : 0,
+                hasZone ? rule.getMinLng().doubleValue() : 0, hasZone ? rule.getMaxLng().doubleValue() : 0);
+    }
+
+    /** Bit h set = hour h matches; [start, end) wraps past midnight when end <= start */
+    static int hourMask(Integer startHour, Integer endHour) {
+        if (startHour == null || endHour == null) return ALL_HOURS;
+        int mask = 0;
+        int h = startHour;
+        do {
+            mask |= 1 << h;
+            h = (h + 1) % 24;
+        } while (h != endHour);
+        return mask;
+    }
+
+    private static int specificity(CommissionRule rule) {
+        int n = 0;
+        if (rule.getVehicleType() != null) n++;
+        if (rule.getDriverTier() != null) n++;
+        if (rule.getStartHour() != null && rule.getEndHour() != null) n++;
+        if (rule.getMinLat() != null) n++;
+        return n;
+    }
+
+    /** null for "any vehicle" (missing, blank or ANY) */
+    private static String normalizeVehicleType(String vehicleType) {
+        if (vehicleType == null || vehicleType.isBlank()) return null;
+        String type = vehicleType.trim().toUpperCase(Locale.ROOT);
+        return "ANY".equals(type) ? null : type;
+    }
+}
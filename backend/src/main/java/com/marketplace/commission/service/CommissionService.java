@@ -0,0 +1,139 @@
+package com.marketplace.commission.service;
+
+import com.marketplace.commission.dto.CommissionDTO;
+import com.marketplace.commission.entity.CommissionRule;
+import com.marketplace.commission.entity.DriverTier;
+import com.marketplace.commission.repository.CommissionRuleRepository;
+import com.marketplace.common.exception.BadRequestException;
+import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class CommissionService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Autowired
+    private CommissionRuleRepository ruleRepository;
+
+    @Autowired
+    private CommissionEngine commissionEngine;
+
+    // ─── EVALUATION (no database access) ─────────────────────
+
+    /**
+     * Commission on {@code fare} under the current rules. Joins the caller's transaction
+     * (ride completion) if there is one, but never opens one or takes a connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CommissionDTO.QuoteResponse quote(String vehicleType, DriverTier tier, BigDecimal pickupLat,
+                                             BigDecimal pickupLng, BigDecimal fare, LocalDateTime at) {
+        CommissionRuleSet.Match match = commissionEngine.evaluate(vehicleType, tier, at, pickupLat, pickupLng);
+        BigDecimal commissionAmount = fare.multiply(match.ratePercent())
+                .divide(HUNDRED, 2, RoundingMode.HALF_UP);
+        return CommissionDTO.QuoteResponse.builder()
+                .fare(fare)
+                .ratePercent(match.ratePercent())
+                .commissionAmount(commissionAmount)
+                .driverEarning(fare.subtract(commissionAmount))
+                .ruleId(match.ruleId())
+                .build();
+    }
+
+    // ─── ADMIN RULE MANAGEMENT ───────────────────────────────
+
+    @Transactional(readOnly = true)
+    public List<CommissionDTO.RuleResponse> getAllRules() {
+        return ruleRepository.findAllByOrderByPriorityDescIdAsc().stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public CommissionDTO.RuleResponse createRule(CommissionDTO.RuleRequest request) {
+        CommissionRule rule = new CommissionRule();
+        apply(rule, request);
+        rule = ruleRepository.save(rule);
+        TransactionUtils.afterCommit(commissionEngine::reload);
+        return convertToResponse(rule);
+    }
+
+    public CommissionDTO.RuleResponse updateRule(Long id, CommissionDTO.RuleRequest request) {
+        CommissionRule rule = getRuleOrThrow(id);
+        apply(rule, request);
+        rule = ruleRepository.save(rule);
+        TransactionUtils.afterCommit(commissionEngine::reload);
+        return convertToResponse(rule);
+    }
+
+    public void deleteRule(Long id) {
+        ruleRepository.delete(getRuleOrThrow(id));
+        TransactionUtils.afterCommit(commissionEngine::reload);
+    }
+
+    // ─── HELPERS ─────────────────────────────────────────────
+
+    private CommissionRule getRuleOrThrow(Long id) {
+        return ruleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Commission rule not found with id: " + id));
+    }
+
+    private void apply(CommissionRule rule, CommissionDTO.RuleRequest request) {
+        if ((request.getStartHour() == null) != (request.getEndHour() == null)) {
+            throw new BadRequestException("startHour and endHour must be given together");
+        }
+        int zoneFields = (request.getMinLat() != null ? 1 : 0) + (request.getMaxLat() != null ? 1 : 0)
+                + (request.getMinLng() != null ? 1 : 0) + (request.getMaxLng() != null ? 1 : 0);
+        if (zoneFields != 0 && zoneFields != 4) {
+            throw new BadRequestException("A zone needs minLat, maxLat, minLng and maxLng");
+        }
+        if (zoneFields == 4 && (request.getMinLat().compareTo(request.getMaxLat()) > 0
+                || request.getMinLng().compareTo(request.getMaxLng()) > 0)) {
+            throw new BadRequestException("Zone minimums must not exceed maximums");
+        }
+
+        rule.setName(request.getName());
+        rule.setRatePercent(request.getRatePercent());
+        rule.setPriority(request.getPriority() != null ? request.getPriority() : 0);
+        rule.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
+        rule.setVehicleType(request.getVehicleType() != null && !request.getVehicleType().isBlank()
+                ? request.getVehicleType().trim().toUpperCase() : null);
+        rule.setDriverTier(request.getDriverTier());
+        rule.setStartHour(request.getStartHour());
+        rule.setEndHour(request.getEndHour());
+        rule.setMinLat(request.getMinLat());
+        rule.setMaxLat(request.getMaxLat());
+        rule.setMinLng(request.getMinLng());
+        rule.setMaxLng(request.getMaxLng());
+    }
+
+    private CommissionDTO.RuleResponse convertToResponse(CommissionRule rule) {
+        return CommissionDTO.RuleResponse.builder()
+                .id(rule.getId())
+                .name(rule.getName())
+                .ratePercent(rule.getRatePercent())
+                .priority(rule.getPriority())
+                .isActive(rule.getIsActive())
+                .vehicleType(rule.getVehicleType())
+                .driverTier(rule.getDriverTier())
+                .startHour(rule.getStartHour())
+                .endHour(rule.getEndHour())
+                .minLat(rule.getMinLat())
+                .maxLat(rule.getMaxLat())
+                .minLng(rule.getMinLng())
+                .maxLng(rule.getMaxLng())
+                .createdAt(rule.getCreatedAt())
+                .updatedAt(rule.getUpdatedAt())
+                .build();
+    }
+}
@@ -14,6 +14,7 @@ public class Constants {
     public static final int STATUS_UNAUTHORIZED = 401;
     public static final int STATUS_FORBIDDEN = 403;
     public static final int STATUS_NOT_FOUND = 404;
+    public static final int STATUS_CONFLICT = 409;
     public static final int STATUS_INTERNAL_ERROR = 500;
 
     // Messages
@@ -14,6 +14,7 @@ import com.marketplace.rental.repository.RentalRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Component
+@Profile("!test") // integration tests bring their own data
 public class DatabaseSeeder implements CommandLineRunner {
 
     @Autowired
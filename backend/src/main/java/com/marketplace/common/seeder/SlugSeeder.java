@@ -1,11 +1,12 @@
 package com.marketplace.common.seeder;
 
-import com.marketplace.common.util.SlugUtil;
 import com.marketplace.listing.entity.Listing;
 import com.marketplace.listing.repository.ListingRepository;
+import com.marketplace.listing.service.SlugAllocator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,14 +14,17 @@ import java.util.List;
 
 @Slf4j
 @Component
+@Profile("!test") // integration tests bring their own data
 @RequiredArgsConstructor
 public class SlugSeeder implements CommandLineRunner {
 
     private final ListingRepository listingRepository;
+    private final SlugAllocator slugAllocator;
 
     @Override
     @Transactional
     public void run(String... args) {
+        backfillSlugParts();
         log.info("Starting slug generation for existing listings...");
 
         // Find all listings without slugs
@@ -38,20 +42,14 @@ public class SlugSeeder implements CommandLineRunner {
         int updated = 0;
         for (Listing listing : listingsWithoutSlugs) {
             try {
-                // Generate base slug from title
-                String baseSlug = SlugUtil.generateSlug(listing.getTitle());
-                String slug = baseSlug;
-                int attempt = 0;
-
-                // Ensure uniqueness
-                while (listingRepository.findBySlug(slug).isPresent()) {
-                    attempt++;
-                    slug = SlugUtil.generateUniqueSlug(baseSlug, attempt);
-                }
+                // Base slug from title, suffixed past the highest one in use
+                SlugAllocator.Slug slug = slugAllocator.allocate(listing.getTitle(), 0);
 
                 // Update listing with slug
-                listing.setSlug(slug);
-                listingRepository.save(listing);
+                listing.setSlug(slug.value());
+                listing.setSlugBase(slug.base());
+                listing.setSlugSuffix(slug.suffix());
+                listingRepository.saveAndFlush(listing);
                 updated++;
 
                 log.debug("Generated slug '{}' for listing: {}", slug, listing.getTitle());
@@ -62,4 +60,20 @@ public class SlugSeeder implements CommandLineRunner {
 
         log.info("Successfully generated slugs for {} listings", updated);
     }
+
+    /** Fills slug_base / slug_suffix (V39) for listings whose slug predates them */
+    private void backfillSlugParts() {
+        List<Listing> listings = listingRepository.findBySlugBaseIsNull().stream()
+                .filter(listing -> listing.getSlug() != null && !listing.getSlug().isEmpty())
+                .toList();
+        if (listings.isEmpty()) return;
+
+        for (Listing listing : listings) {
+            SlugAllocator.Slug slug = SlugAllocator.parseLegacy(listing.getTitle(), listing.getSlug());
+            listing.setSlugBase(slug.base());
+            listing.setSlugSuffix(slug.suffix());
+        }
+        listingRepository.saveAll(listings);
+        log.info("Recorded slug base and suffix for {} existing listings", listings.size());
+    }
 }
@@ -0,0 +1,75 @@
+package com.marketplace.common.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Conditional GET from validators computed before the body is built.
+ *
+ * The ETag is the resource name joined with its version parts (ids, counts,
+ * update timestamps), so answering a revalidation costs one cheap lookup and
+ * no serialization.
+ */
+public class ConditionalGet {
+
+    /**
+     * Strong ETag; no Last-Modified is sent. A collection's newest update time does not
+     * move on a deletion, and a resource embedding related data (an owner, images) can
+     * change without moving its own, so Last-Modified could wrongly answer 304.
+     */
+    public record Validator(String etag) {
+
+        /** {@code parts} must cover every input of the body, e.g. through {@link #fingerprint} */
+        public static Validator of(String resource, Object... parts) {
+            return new Validator(buildEtag(resource, parts));
+        }
+    }
+
+    /** Short digest of {@code values}, for validator parts that have no version of their own */
+    public static String fingerprint(Object... values) {
+        String joined = Arrays.stream(values).map(String::valueOf).collect(Collectors.joining("\u0000"));
+        return DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    /**
+     * 304 with the cache policy when the request's If-None-Match still matches,
+     * otherwise 200 with the body. The ETag is set on both.
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request, Validator validator,
+                                                CacheControl cacheControl, Supplier<T> body) {
+        if (request.checkNotModified(validator.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body.get());
+    }
+
+    /** Public, revalidated once {@code maxAgeSeconds} have passed */
+    public static CacheControl publicFor(long maxAgeSeconds) {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic().mustRevalidate();
+    }
+
+    private static String buildEtag(String resource, Object... parts) {
+        String version = Arrays.stream(parts)
+                .map(part -> part instanceof LocalDateTime time ? Long.toString(toMillis(time)) : String.valueOf(part))
+                .collect(Collectors.joining("-"));
+        return "\"" + resource + (version.isEmpty() ? "" : "-" + version) + "\"";
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private ConditionalGet() {
+    }
+}
@@ -0,0 +1,44 @@
+package com.marketplace.common.util;
+
+import com.marketplace.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination: the sort key values of the last row,
+ * joined and base64url-encoded. Clients pass them back unchanged.
+ */
+public class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    public static String encode(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(SEPARATOR);
+            sb.append(values[i] != null ? values[i] : "");
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws BadRequestException when the cursor is malformed or has the wrong number of parts
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != expectedParts) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private CursorCodec() {
+    }
+}
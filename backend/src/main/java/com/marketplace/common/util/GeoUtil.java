@@ -0,0 +1,41 @@
+package com.marketplace.common.util;
+
+/**
+ * Small set of great-circle helpers shared by the tracking and ride modules.
+ */
+public class GeoUtil {
+
+    /** Mean Earth radius in kilometres */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** Kilometres spanned by one degree of latitude */
+    public static final double KM_PER_DEGREE_LAT = 111.32;
+
+    /**
+     * Haversine distance between two points in kilometres.
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Degrees of longitude covering {@code km} at the given latitude.
+     * Clamped near the poles so the result stays finite.
+     */
+    public static double kmToLngDegrees(double km, double lat) {
+        double cos = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        return km / (KM_PER_DEGREE_LAT * cos);
+    }
+
+    public static double kmToLatDegrees(double km) {
+        return km / KM_PER_DEGREE_LAT;
+    }
+
+    private GeoUtil() {
+    }
+}
@@ -0,0 +1,199 @@
+package com.marketplace.common.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe uniform lat/lng grid keyed by a numeric id.
+ *
+ * Each id lives in exactly one cell; a cell is addressed by a single long
+ * (row in the high 32 bits, column in the low 32 bits). Radius queries only
+ * visit the cells overlapping the search circle and then filter/sort by true
+ * haversine distance.
+ *
+ * @param <V> payload stored alongside each point
+ */
+public class SpatialGridIndex<V> {
+
+    /** A point stored in the grid */
+    public record Entry<V>(long id, double lat, double lng, long cellKey, V value) {
+    }
+
+    /** A radius query result, ordered nearest first */
+    public record Hit<V>(V value, double distanceKm) {
+    }
+
+    private final double cellSizeDeg;
+    private final ConcurrentHashMap<Long, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public SpatialGridIndex(double cellSizeDeg) {
+        if (cellSizeDeg <= 0) {
+            throw new IllegalArgumentException("cellSizeDeg must be positive");
+        }
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    /**
+     * Insert or move a point. Moving within the same cell does not touch the bucket map.
+     * Updates for the same id are applied atomically.
+     */
+    public void put(long id, double lat, double lng, V value) {
+        long newKey = cellKey(lat, lng);
+        entries.compute(id, (k, previous) -> {
+            if (previous == null || previous.cellKey() != newKey) {
+                addToCell(newKey, id);
+                if (previous != null) {
+                    removeFromCell(previous.cellKey(), id);
+                }
+            }
+            return new Entry<>(id, lat, lng, newKey, value);
+        });
+    }
+
+    public V remove(long id) {
+        Object[] removed = new Object[1];
+        entries.computeIfPresent(id, (k, previous) -> {
+            removeFromCell(previous.cellKey(), id);
+            removed[0] = previous.value();
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        V value = (V) removed[0];
+        return value;
+    }
+
+    /**
+     * Remove only if the stored payload is still {@code expected} (identity check),
+     * so a concurrent update is never discarded.
+     */
+    public boolean remove(long id, V expected) {
+        boolean[] removed = {false};
+        entries.computeIfPresent(id, (k, previous) -> {
+            if (previous.value() != expected) return previous;
+            removeFromCell(previous.cellKey(), id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /** Visit every stored entry (weakly consistent) */
+    public void forEach(Consumer<Entry<V>> consumer) {
+        entries.values().forEach(consumer);
+    }
+
+    public Entry<V> get(long id) {
+        return entries.get(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    /**
+     * All points within {@code radiusKm} of the given centre, nearest first.
+     */
+    public List<Hit<V>> within(double lat, double lng, double radiusKm) {
+        List<Hit<V>> hits = new ArrayList<>();
+        forEachCandidate(lat, lng, radiusKm, entry -> {
+            double distance = GeoUtil.haversineKm(lat, lng, entry.lat(), entry.lng());
+            if (distance <= radiusKm) {
+                hits.add(new Hit<>(entry.value(), distance));
+            }
+        });
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * Approximate number of points in the cells covering the search circle,
+     * read from the per-cell buckets without visiting individual points.
+     * Over-counts by at most the cell corners outside the circle.
+     */
+    public int countInCells(double lat, double lng, double radiusKm) {
+        double dLat = GeoUtil.kmToLatDegrees(radiusKm);
+        double dLng = GeoUtil.kmToLngDegrees(radiusKm, lat);
+        int maxRow = row(lat + dLat);
+        int maxCol = col(lng + dLng);
+        int count = 0;
+        for (int r = row(lat - dLat); r <= maxRow; r++) {
+            for (int c = col(lng - dLng); c <= maxCol; c++) {
+                Set<Long> ids = cells.get(pack(r, c));
+                if (ids != null) {
+                    count += ids.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    // ─── INTERNALS ────────────────────────────────────────────────────────────
+
+    private void forEachCandidate(double lat, double lng, double radiusKm,
+                                  Consumer<Entry<V>> consumer) {
+        double dLat = GeoUtil.kmToLatDegrees(radiusKm);
+        double dLng = GeoUtil.kmToLngDegrees(radiusKm, lat);
+        int minRow = row(lat - dLat);
+        int maxRow = row(lat + dLat);
+        int minCol = col(lng - dLng);
+        int maxCol = col(lng + dLng);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                long key = pack(r, c);
+                Set<Long> ids = cells.get(key);
+                if (ids == null) continue;
+                for (Long id : ids) {
+                    Entry<V> entry = entries.get(id);
+                    // Skip ids caught mid-move so each point is visited once
+                    if (entry != null && entry.cellKey() == key) {
+                        consumer.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addToCell(long key, long id) {
+        cells.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void removeFromCell(long key, long id) {
+        cells.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private long cellKey(double lat, double lng) {
+        return pack(row(lat), col(lng));
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((Math.max(-90.0, Math.min(90.0, lat)) + 90.0) / cellSizeDeg);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((Math.max(-180.0, Math.min(180.0, lng)) + 180.0) / cellSizeDeg);
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -0,0 +1,74 @@
+package com.marketplace.common.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timer wheel of id deadlines.
+ *
+ * Deadlines fall into one of {@code slots} buckets by tick; scheduling is O(1)
+ * and {@link #advance} only visits the buckets of ticks that have passed, so
+ * the cost of a sweep follows the number of due ids, not the number armed.
+ * Deadlines more than one revolution away stay in their bucket until a later pass.
+ */
+public class TimerWheel {
+
+    private final long tickMs;
+    private final List<Map<Long, Long>> buckets;
+    private long lastTick;
+
+    public TimerWheel(long tickMs, int slots) {
+        if (tickMs <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("tickMs and slots must be positive");
+        }
+        this.tickMs = tickMs;
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.lastTick = System.currentTimeMillis() / tickMs - 1;
+    }
+
+    /** Arm {@code id} to fire at {@code deadlineMillis} */
+    public synchronized void schedule(long id, long deadlineMillis) {
+        // Round up so a bucket is only visited once all of its deadlines in this revolution have passed;
+        // overdue deadlines go to the next bucket visited
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMs - 1, tickMs), lastTick + 1);
+        buckets.get(slot(tick)).put(id, deadlineMillis);
+    }
+
+    /** Remove and return every id whose deadline is at or before {@code nowMillis} */
+    public synchronized List<Long> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        long nowTick = nowMillis / tickMs;
+        // A gap longer than one revolution visits each bucket once
+        long from = Math.max(lastTick + 1, nowTick - buckets.size() + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Map.Entry<Long, Long>> it = buckets.get(slot(tick)).entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Long> entry = it.next();
+                if (entry.getValue() <= nowMillis) {
+                    due.add(entry.getKey());
+                    it.remove();
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+        return due;
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Map<Long, Long> bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.marketplace.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for keeping in-memory state in step with committed database state.
+ */
+public class TransactionUtils {
+
+    /**
+     * Run {@code action} once the current transaction commits, or immediately
+     * when there is no transaction. Rolled-back work never reaches in-memory state.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Run {@code action} if the current transaction does not commit. Without a
+     * transaction there is nothing to roll back and the action never runs.
+     */
+    public static void afterRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) action.run();
+                }
+            });
+        }
+    }
+
+    private TransactionUtils() {
+    }
+}
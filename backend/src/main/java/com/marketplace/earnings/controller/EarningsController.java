@@ -0,0 +1,94 @@
+package com.marketplace.earnings.controller;
+
+import com.marketplace.common.constants.Constants;
+import com.marketplace.common.payload.ApiResponse;
+import com.marketplace.common.payload.CursorPage;
+import com.marketplace.earnings.dto.EarningsDTO;
+import com.marketplace.earnings.service.EarningsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/earnings")
+public class EarningsController {
+
+    @Autowired
+    private EarningsService earningsService;
+
+    /**
+     * GET /api/earnings/my/daily?from=&to=
+     * Driver's per-day totals (default: last 30 days).
+     */
+    @GetMapping("/my/daily")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<EarningsDTO.PeriodTotal>>> getMyDailyTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+
+        Long userId = Long.parseLong(authentication.getPrincipal().toString());
+        List<EarningsDTO.PeriodTotal> response = earningsService.getMyDailyTotals(userId, from, to);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+
+    /**
+     * GET /api/earnings/my/weekly?from=&to=
+     * Driver's per-week totals, weeks starting Monday (default: last 12 weeks).
+     */
+    @GetMapping("/my/weekly")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<List<EarningsDTO.PeriodTotal>>> getMyWeeklyTotals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+
+        Long userId = Long.parseLong(authentication.getPrincipal().toString());
+        List<EarningsDTO.PeriodTotal> response = earningsService.getMyWeeklyTotals(userId, from, to);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+
+    /**
+     * GET /api/earnings/my/ledger?cursor=&size=
+     * Driver's individual credits, newest first.
+     */
+    @GetMapping("/my/ledger")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPage<EarningsDTO.LedgerEntryResponse>>> getMyLedger(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+
+        Long userId = Long.parseLong(authentication.getPrincipal().toString());
+        CursorPage<EarningsDTO.LedgerEntryResponse> response =
+                earningsService.getMyLedger(userId, cursor, CursorPage.clampSize(size));
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+
+    /**
+     * GET /api/earnings/admin/weekly?week=
+     * All drivers' totals for the week containing {@code week} (payout input).
+     */
+    @GetMapping("/admin/weekly")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<EarningsDTO.PeriodTotal>>> getWeekForAllDrivers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate week) {
+
+        List<EarningsDTO.PeriodTotal> response = earningsService.getWeekForAllDrivers(week);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+}
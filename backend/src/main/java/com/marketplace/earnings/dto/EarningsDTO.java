@@ -0,0 +1,44 @@
+package com.marketplace.earnings.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class EarningsDTO {
+
+    /** One ledger row */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LedgerEntryResponse {
+        private Long id;
+        private Long rideId;
+        private String entryType;
+        private BigDecimal grossAmount;
+        private BigDecimal commissionAmount;
+        private BigDecimal netAmount;
+        private LocalDateTime earnedAt;
+    }
+
+    /** Totals of one day or week (periodStart = the day, or the Monday of the week) */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class PeriodTotal {
+        private Long driverId;
+        private LocalDate periodStart;
+        private int rideCount;
+        private BigDecimal grossAmount;
+        private BigDecimal commissionAmount;
+        private BigDecimal netAmount;
+    }
+}
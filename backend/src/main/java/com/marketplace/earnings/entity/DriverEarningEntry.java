@@ -0,0 +1,55 @@
+package com.marketplace.earnings.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One credit to a driver's earnings. Rows are only ever inserted.
+ */
+@Entity
+@Immutable
+@Table(name = "driver_earnings_ledger")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverEarningEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "driver_id", nullable = false)
+    private Long driverId;
+
+    @Column(name = "ride_id", nullable = false)
+    private Long rideId;
+
+    @Column(name = "entry_type", nullable = false, length = 20)
+    @Builder.Default
+    private String entryType = "RIDE";
+
+    @Column(name = "gross_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(name = "commission_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal commissionAmount;
+
+    @Column(name = "net_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal netAmount;
+
+    @Column(name = "earned_at", nullable = false)
+    private LocalDateTime earnedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
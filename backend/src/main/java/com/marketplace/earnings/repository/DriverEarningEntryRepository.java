@@ -0,0 +1,22 @@
+package com.marketplace.earnings.repository;
+
+import com.marketplace.earnings.entity.DriverEarningEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DriverEarningEntryRepository extends JpaRepository<DriverEarningEntry, Long> {
+
+    boolean existsByRideIdAndEntryType(Long rideId, String entryType);
+
+    // Newest first, seeking past the last id seen
+    @Query("SELECT e FROM DriverEarningEntry e WHERE e.driverId = :driverId AND e.id < :beforeId ORDER BY e.id DESC")
+    List<DriverEarningEntry> findByDriverBefore(@Param("driverId") Long driverId,
+                                                @Param("beforeId") Long beforeId,
+                                                Pageable pageable);
+}
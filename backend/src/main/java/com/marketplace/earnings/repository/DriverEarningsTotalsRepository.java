@@ -0,0 +1,83 @@
+package com.marketplace.earnings.repository;
+
+import com.marketplace.earnings.dto.EarningsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Running per-driver totals in driver_earnings_daily / driver_earnings_weekly.
+ * Each credit is one upsert per table, so reads never touch the ledger or rides.
+ */
+@Repository
+public class DriverEarningsTotalsRepository {
+
+    private static final String ADD_SQL = """
+            INSERT INTO %s (driver_id, %s, ride_count, gross_amount, commission_amount, net_amount)
+            VALUES (?, ?, 1, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                ride_count        = ride_count + 1,
+                gross_amount      = gross_amount + VALUES(gross_amount),
+                commission_amount = commission_amount + VALUES(commission_amount),
+                net_amount        = net_amount + VALUES(net_amount)
+            """;
+
+    private static final String ADD_DAILY_SQL = ADD_SQL.formatted("driver_earnings_daily", "day");
+    private static final String ADD_WEEKLY_SQL = ADD_SQL.formatted("driver_earnings_weekly", "week_start");
+
+    private static final String SELECT_DAILY_SQL = """
+            SELECT day AS period_start, ride_count, gross_amount, commission_amount, net_amount
+            FROM driver_earnings_daily WHERE driver_id = ? AND day BETWEEN ? AND ? ORDER BY day
+            """;
+
+    private static final String SELECT_WEEKLY_SQL = """
+            SELECT week_start AS period_start, ride_count, gross_amount, commission_amount, net_amount
+            FROM driver_earnings_weekly WHERE driver_id = ? AND week_start BETWEEN ? AND ? ORDER BY week_start
+            """;
+
+    private static final String SELECT_WEEK_ALL_DRIVERS_SQL = """
+            SELECT driver_id, week_start AS period_start, ride_count, gross_amount, commission_amount, net_amount
+            FROM driver_earnings_weekly WHERE week_start = ? ORDER BY driver_id
+            """;
+
+    private static final RowMapper<EarningsDTO.PeriodTotal> PERIOD_MAPPER = (rs, i) -> EarningsDTO.PeriodTotal.builder()
+            .periodStart(rs.getDate("period_start").toLocalDate())
+            .rideCount(rs.getInt("ride_count"))
+            .grossAmount(rs.getBigDecimal("gross_amount"))
+            .commissionAmount(rs.getBigDecimal("commission_amount"))
+            .netAmount(rs.getBigDecimal("net_amount"))
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Add one ride to the driver's day and week (joins the caller's transaction) */
+    public void add(Long driverId, LocalDate day, LocalDate weekStart,
+                    BigDecimal gross, BigDecimal commission, BigDecimal net) {
+        jdbcTemplate.update(ADD_DAILY_SQL, driverId, Date.valueOf(day), gross, commission, net);
+        jdbcTemplate.update(ADD_WEEKLY_SQL, driverId, Date.valueOf(weekStart), gross, commission, net);
+    }
+
+    public List<EarningsDTO.PeriodTotal> findDaily(Long driverId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_DAILY_SQL, PERIOD_MAPPER, driverId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<EarningsDTO.PeriodTotal> findWeekly(Long driverId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(SELECT_WEEKLY_SQL, PERIOD_MAPPER, driverId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /** Every driver's totals for one week (payout input) */
+    public List<EarningsDTO.PeriodTotal> findWeekForAllDrivers(LocalDate weekStart) {
+        return jdbcTemplate.query(SELECT_WEEK_ALL_DRIVERS_SQL, (rs, i) -> {
+            EarningsDTO.PeriodTotal total = PERIOD_MAPPER.mapRow(rs, i);
+            total.setDriverId(rs.getLong("driver_id"));
+            return total;
+        }, Date.valueOf(weekStart));
+    }
+}
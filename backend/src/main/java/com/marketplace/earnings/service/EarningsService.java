@@ -0,0 +1,158 @@
+package com.marketplace.earnings.service;
+
+import com.marketplace.common.exception.BadRequestException;
+import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.payload.CursorPage;
+import com.marketplace.common.util.CursorCodec;
+import com.marketplace.earnings.dto.EarningsDTO;
+import com.marketplace.earnings.entity.DriverEarningEntry;
+import com.marketplace.earnings.repository.DriverEarningEntryRepository;
+import com.marketplace.earnings.repository.DriverEarningsTotalsRepository;
+import com.marketplace.rental.entity.Driver;
+import com.marketplace.rental.repository.DriverRepository;
+import com.marketplace.ride.entity.Ride;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Driver earnings: an append-only ledger plus daily and weekly running totals.
+ * Reports and payouts read the totals; the ledger is the audit trail behind them.
+ */
+@Service
+@Slf4j
+public class EarningsService {
+
+    public static final String ENTRY_TYPE_RIDE = "RIDE";
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    @Autowired
+    private DriverEarningEntryRepository entryRepository;
+
+    @Autowired
+    private DriverEarningsTotalsRepository totalsRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    /**
+     * Credit a completed ride to its driver. Must run in the completing transaction so
+     * the ride, the ledger row and the totals commit or roll back together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRideEarning(Ride ride) {
+        if (entryRepository.existsByRideIdAndEntryType(ride.getId(), ENTRY_TYPE_RIDE)) {
+            log.warn("Ride {} already credited, skipping", ride.getId());
+            return;
+        }
+        Long driverId = ride.getAssignedDriver().getId();
+        entryRepository.save(DriverEarningEntry.builder()
+                .driverId(driverId)
+                .rideId(ride.getId())
+                .entryType(ENTRY_TYPE_RIDE)
+                .grossAmount(ride.getFinalPrice())
+                .commissionAmount(ride.getCommissionAmount())
+                .netAmount(ride.getDriverEarning())
+                .earnedAt(ride.getCompletedAt())
+                .build());
+
+        LocalDate day = ride.getCompletedAt().toLocalDate();
+        totalsRepository.add(driverId, day, weekStart(day),
+                ride.getFinalPrice(), ride.getCommissionAmount(), ride.getDriverEarning());
+    }
+
+    // ─── DRIVER QUERIES ──────────────────────────────────────
+
+    /** Daily totals; defaults to the last 30 days */
+    @Transactional(readOnly = true)
+    public List<EarningsDTO.PeriodTotal> getMyDailyTotals(Long userId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        validateRange(start, end);
+        return totalsRepository.findDaily(getDriverByUserId(userId).getId(), start, end);
+    }
+
+    /** Weekly totals (weeks start on Monday); defaults to the last 12 weeks */
+    @Transactional(readOnly = true)
+    public List<EarningsDTO.PeriodTotal> getMyWeeklyTotals(Long userId, LocalDate from, LocalDate to) {
+        LocalDate end = weekStart(to != null ? to : LocalDate.now());
+        LocalDate start = weekStart(from != null ? from : end.minusWeeks(11));
+        validateRange(start, end);
+        return totalsRepository.findWeekly(getDriverByUserId(userId).getId(), start, end);
+    }
+
+    /** Ledger rows, newest first, keyset-paginated on id */
+    @Transactional(readOnly = true)
+    public CursorPage<EarningsDTO.LedgerEntryResponse> getMyLedger(Long userId, String cursor, int size) {
+        Long driverId = getDriverByUserId(userId).getId();
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeId = Long.parseLong(CursorCodec.decode(cursor, 1)[0]);
+            } catch (NumberFormatException ex) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        List<DriverEarningEntry> rows = entryRepository.findByDriverBefore(driverId, beforeId, PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        List<DriverEarningEntry> page = hasMore ? rows.subList(0, size) : rows;
+        return CursorPage.<EarningsDTO.LedgerEntryResponse>builder()
+                .content(page.stream().map(this::convertToResponse).collect(Collectors.toList()))
+                .nextCursor(hasMore ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .size(size)
+                .build();
+    }
+
+    // ─── ADMIN / PAYOUTS ─────────────────────────────────────
+
+    /** Every driver's totals for the week containing {@code day} */
+    @Transactional(readOnly = true)
+    public List<EarningsDTO.PeriodTotal> getWeekForAllDrivers(LocalDate day) {
+        return totalsRepository.findWeekForAllDrivers(weekStart(day));
+    }
+
+    // ─── HELPERS ─────────────────────────────────────────────
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private Driver getDriverByUserId(Long userId) {
+        return driverRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Driver profile not found"));
+    }
+
+    private EarningsDTO.LedgerEntryResponse convertToResponse(DriverEarningEntry entry) {
+        return EarningsDTO.LedgerEntryResponse.builder()
+                .id(entry.getId())
+                .rideId(entry.getRideId())
+                .entryType(entry.getEntryType())
+                .grossAmount(entry.getGrossAmount())
+                .commissionAmount(entry.getCommissionAmount())
+                .netAmount(entry.getNetAmount())
+                .earnedAt(entry.getEarnedAt())
+                .build();
+    }
+}
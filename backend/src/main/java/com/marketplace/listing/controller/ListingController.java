@@ -2,16 +2,19 @@ package com.marketplace.listing.controller;
 
 import com.marketplace.common.constants.Constants;
 import com.marketplace.common.payload.ApiResponse;
+import com.marketplace.common.util.ConditionalGet;
 import com.marketplace.listing.dto.ListingDTO;
 import com.marketplace.listing.service.ListingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,6 +25,9 @@ public class ListingController {
         @Autowired
         private ListingService listingService;
 
+        @Value("${http.cache.listing-max-age-s:60}")
+        private long listingMaxAgeSeconds;
+
         @PostMapping
         @PreAuthorize("hasAnyRole('SELLER', 'CUSTOMER', 'ADMIN', 'SUPER_ADMIN')")
         public ResponseEntity<ApiResponse<ListingDTO.ListingResponse>> createListing(
@@ -61,10 +67,13 @@ public class ListingController {
 
         @GetMapping("/{slug}")
         public ResponseEntity<ApiResponse<ListingDTO.ListingResponse>> getListingBySlug(
-                        @PathVariable String slug) {
+                        @PathVariable String slug,
+                        WebRequest request) {
+                // Served from the detail cache; the validator is computed from the cached response
                 ListingDTO.ListingResponse listing = listingService.getListingBySlug(slug);
-                return ResponseEntity.ok(
-                                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, listing));
+                return ConditionalGet.respond(request, detailValidator(listing),
+                                ConditionalGet.publicFor(listingMaxAgeSeconds),
+                                () -> ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, listing));
         }
 
         @DeleteMapping("/{id}")
@@ -83,6 +92,7 @@ public class ListingController {
 
         @GetMapping("/search")
         public ResponseEntity<ApiResponse<Page<ListingDTO.ListingResponse>>> searchListings(
+                        @RequestParam(required = false) String q,
                         @RequestParam(required = false) String make,
                         @RequestParam(required = false) String model,
                         @RequestParam(required = false) java.math.BigDecimal minPrice,
@@ -98,6 +108,7 @@ public class ListingController {
                         @RequestParam(defaultValue = "10") Integer size) {
 
                 ListingDTO.ListingSearchRequest searchRequest = ListingDTO.ListingSearchRequest.builder()
+                                .q(q)
                                 .make(make)
                                 .model(model)
                                 .minPrice(minPrice)
@@ -120,6 +131,48 @@ public class ListingController {
                                 HttpStatus.OK);
         }
 
+        /**
+         * GET /api/listings/search/faceted
+         * Same parameters as /search; also returns counts per make, fuel type,
+         * transmission, year span and price bucket for the filter.
+         */
+        @GetMapping("/search/faceted")
+        public ResponseEntity<ApiResponse<ListingDTO.FacetedSearchResponse>> searchListingsWithFacets(
+                        @ModelAttribute ListingDTO.ListingSearchRequest searchRequest) {
+
+                ListingDTO.FacetedSearchResponse response = listingService.searchListingsWithFacets(searchRequest);
+
+                return ResponseEntity.ok(
+                                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+        }
+
+        /**
+         * GET /api/listings/search/cursor
+         * Same filters and sorts as /search (without q), paged by the opaque {@code cursor}
+         * from the previous page instead of a page number. {@code withTotal=true} adds an
+         * approximate match count.
+         */
+        @GetMapping("/search/cursor")
+        public ResponseEntity<ApiResponse<ListingDTO.CursorSearchResponse>> searchListingsByCursor(
+                        @ModelAttribute ListingDTO.ListingSearchRequest searchRequest,
+                        @RequestParam(required = false) String cursor,
+                        @RequestParam(defaultValue = "false") boolean withTotal) {
+
+                ListingDTO.CursorSearchResponse response =
+                                listingService.searchListingsByCursor(searchRequest, cursor, withTotal);
+
+                return ResponseEntity.ok(
+                                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+        }
+
+        @GetMapping("/admin/cache-stats")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+        public ResponseEntity<ApiResponse<ListingDTO.CacheStats>> getDetailCacheStats() {
+                return ResponseEntity.ok(
+                                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS,
+                                                listingService.getDetailCacheStats()));
+        }
+
         @GetMapping("/my")
         @PreAuthorize("isAuthenticated()")
         public ResponseEntity<ApiResponse<List<ListingDTO.ListingResponse>>> getMyListings(
@@ -132,4 +185,17 @@ public class ListingController {
                                 ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response),
                                 HttpStatus.OK);
         }
+
+        /**
+         * Image edits and owner profile changes do not move the listing's updatedAt, so the
+         * ETag also fingerprints the owner block and the image list, and no Last-Modified is sent.
+         */
+        private static ConditionalGet.Validator detailValidator(ListingDTO.ListingResponse listing) {
+                ListingDTO.OwnerInfo owner = listing.getOwner();
+                String related = owner != null
+                                ? ConditionalGet.fingerprint(owner.getId(), owner.getFirstName(), owner.getLastName(),
+                                                owner.getEmail(), owner.getPhone(), listing.getImages())
+                                : ConditionalGet.fingerprint(listing.getImages());
+                return ConditionalGet.Validator.of("listing", listing.getId(), listing.getUpdatedAt(), related);
+        }
 }
@@ -1,10 +1,12 @@
 package com.marketplace.listing.dto;
 
+import com.marketplace.common.payload.CursorPage;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -119,6 +121,7 @@ public class ListingDTO {
     @NoArgsConstructor
     @AllArgsConstructor
     public static class ListingSearchRequest {
+        private String q; // keywords over title, make, model, features and description
         private String make;
         private String model;
         private BigDecimal minPrice;
@@ -133,4 +136,70 @@ public class ListingDTO {
         private Integer page;
         private Integer size;
     }
+
+    /** Search results together with facet counts for the same filter */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetedSearchResponse {
+        private Page<ListingResponse> results;
+        private SearchFacets facets;
+    }
+
+    /**
+     * One keyset page of search results. {@code approximateTotal} is only filled when
+     * asked for, and comes from the in-memory index rather than a COUNT query.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CursorSearchResponse {
+        private CursorPage<ListingResponse> results;
+        private Long approximateTotal;
+    }
+
+    /**
+     * Counts per facet value over all listings matching the filter. When
+     * {@code approximate} is true the counts were extrapolated from part of the set.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchFacets {
+        private long total;
+        private boolean approximate;
+        private List<FacetCount> make;
+        private List<FacetCount> fuelType;
+        private List<FacetCount> transmission;
+        private List<FacetCount> year;
+        private List<FacetCount> price;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private long count;
+    }
+
+    /** Listing detail cache counters since startup */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheStats {
+        private long entries;
+        private long weightBytes;
+        private long maxWeightBytes;
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+        private long evictionCount;
+        private long evictionWeight;
+        private long slugEntries;
+    }
 }
@@ -16,7 +16,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "vehicles")
+@Table(name = "vehicles",
+        uniqueConstraints = @UniqueConstraint(name = "uk_vehicles_slug", columnNames = "slug"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -31,9 +32,17 @@ public class Listing {
     @Column(nullable = false)
     private String title;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String slug;
 
+    /** The title's slug and the number appended to it to make {@link #slug} unique (0 = none) */
+    @Column(name = "slug_base")
+    private String slugBase;
+
+    @Column(name = "slug_suffix", nullable = false)
+    @Builder.Default
+    private Long slugSuffix = 0L;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
@@ -0,0 +1,28 @@
+package com.marketplace.listing.repository;
+
+import com.marketplace.listing.entity.ListingImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ListingImageRepository extends JpaRepository<ListingImage, Long> {
+
+    /** Image URL of a listing, read without loading the entity */
+    interface ImageUrlView {
+        Long getListingId();
+
+        String getImageUrl();
+    }
+
+    // Images of many listings in one statement, in insertion order (primary first)
+    @Query("""
+            SELECT i.listing.id AS listingId, i.imageUrl AS imageUrl FROM ListingImage i
+            WHERE i.listing.id IN :listingIds ORDER BY i.id
+            """)
+    List<ImageUrlView> findUrlsByListingIdIn(@Param("listingIds") Collection<Long> listingIds);
+}
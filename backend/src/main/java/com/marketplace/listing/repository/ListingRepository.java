@@ -4,45 +4,57 @@ import com.marketplace.listing.entity.Listing;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ListingRepository extends JpaRepository<Listing, Long> {
+public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing> {
 
         Optional<Listing> findBySlug(String slug);
 
+        /**
+         * Highest suffix allocated under {@code base} (0 for the bare base), or null when the
+         * base is unused. Reads the end of the (slug_base, slug_suffix) index.
+         */
+        @Query("SELECT MAX(l.slugSuffix) FROM Listing l WHERE l.slugBase = :base")
+        Long findHighestSlugSuffix(@Param("base") String base);
+
+        List<Listing> findBySlugBaseIsNull();
+
         Page<Listing> findByStatus(String status, Pageable pageable);
 
         Page<Listing> findByOwnerId(Long ownerId, Pageable pageable);
 
-        @Query("SELECT l FROM Listing l WHERE " +
-                        "(:make IS NULL OR l.make = :make) AND " +
-                        "(:model IS NULL OR l.model = :model) AND " +
-                        "(:minYear IS NULL OR l.year >= :minYear) AND " +
-                        "(:maxYear IS NULL OR l.year <= :maxYear) AND " +
-                        "(:minPrice IS NULL OR l.price >= :minPrice) AND " +
-                        "(:maxPrice IS NULL OR l.price <= :maxPrice) AND " +
-                        "(:location IS NULL OR l.location LIKE %:location%) AND " +
-                        "(:listingType IS NULL OR l.listingType = :listingType) AND " +
-                        "(:status IS NULL OR l.status = :status)")
-        Page<Listing> searchListings(
-                        @Param("make") String make,
-                        @Param("model") String model,
-                        @Param("minYear") Integer minYear,
-                        @Param("maxYear") Integer maxYear,
-                        @Param("minPrice") BigDecimal minPrice,
-                        @Param("maxPrice") BigDecimal maxPrice,
-                        @Param("location") String location,
-                        @Param("listingType") String listingType,
-                        @Param("status") String status,
-                        Pageable pageable);
+        /** Owner contact details shown on a listing, read without the user's roles */
+        interface OwnerView {
+                Long getId();
+
+                String getFirstName();
+
+                String getLastName();
+
+                String getEmail();
+
+                String getPhone();
+        }
+
+        // Owners of a page of listings in one statement
+        @Query("""
+                        SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName,
+                               u.email AS email, u.phone AS phone
+                        FROM User u WHERE u.id IN :ownerIds
+                        """)
+        List<OwnerView> findOwnersByIdIn(@Param("ownerIds") Collection<Long> ownerIds);
+
+        // Keyset batches in id order (used to rebuild the search index)
+        List<Listing> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
 
         // Analytics queries
         Long countByCreatedAtAfter(LocalDateTime date);
@@ -0,0 +1,87 @@
+package com.marketplace.listing.repository;
+
+import com.marketplace.listing.dto.ListingDTO;
+import com.marketplace.listing.entity.Listing;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Search predicates over vehicles. Only the filters actually supplied become part of
+ * the WHERE clause, so each combination gets its own plan and can use the
+ * (status, make, model, year) / (status, price) indexes.
+ */
+public class ListingSpecifications {
+
+    /** Sortable columns that may hold NULL; the seek predicate must then cover the NULL run */
+    private static final Set<String> NULLABLE_SORT_FIELDS = Set.of("mileage");
+
+    public static Specification<Listing> forSearch(ListingDTO.ListingSearchRequest request) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (request.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), request.getStatus()));
+            }
+            if (request.getMake() != null) {
+                predicates.add(cb.equal(root.get("make"), request.getMake()));
+            }
+            if (request.getModel() != null) {
+                predicates.add(cb.equal(root.get("model"), request.getModel()));
+            }
+            if (request.getMinYear() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("year"), request.getMinYear()));
+            }
+            if (request.getMaxYear() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("year"), request.getMaxYear()));
+            }
+            if (request.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), request.getMinPrice()));
+            }
+            if (request.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), request.getMaxPrice()));
+            }
+            if (request.getListingType() != null) {
+                predicates.add(cb.equal(root.get("listingType"), request.getListingType()));
+            }
+            if (request.getLocation() != null && !request.getLocation().isBlank()) {
+                predicates.add(cb.like(root.get("location"), "%" + escapeLike(request.getLocation().trim()) + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Rows that come after ({@code key}, {@code id}) in {@code ORDER BY sortBy ASC|DESC, id DESC},
+     * for keyset paging. NULL keys sort lowest, as in MySQL: first ascending, last descending.
+     */
+    @SuppressWarnings("unchecked")
+    public static Specification<Listing> after(String sortBy, boolean ascending, Comparable<?> lastKey, Long id) {
+        Comparable<Object> key = (Comparable<Object>) lastKey;
+        return (root, query, cb) -> {
+            Path<Comparable<Object>> path = root.get(sortBy);
+            boolean nullable = NULLABLE_SORT_FIELDS.contains(sortBy);
+            Predicate sameKey = cb.and(key == null ? cb.isNull(path) : cb.equal(path, key),
+                    cb.lessThan(root.get("id"), id));
+            Predicate pastKey;
+            if (key == null) {
+                pastKey = ascending ? cb.isNotNull(path) : cb.disjunction();
+            } else if (ascending) {
+                pastKey = cb.greaterThan(path, key);
+            } else {
+                pastKey = nullable ? cb.or(cb.lessThan(path, key), cb.isNull(path)) : cb.lessThan(path, key);
+            }
+            return cb.or(pastKey, sameKey);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private ListingSpecifications() {
+    }
+}
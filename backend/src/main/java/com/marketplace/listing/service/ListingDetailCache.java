@@ -0,0 +1,181 @@
+package com.marketplace.listing.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.marketplace.auth.event.UserProfileUpdatedEvent;
+import com.marketplace.listing.dto.ListingDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fully assembled listing detail responses, keyed by id, with a slug → id map in front.
+ *
+ * Bounded by an estimate of each response's size and evicted by Caffeine's
+ * W-TinyLFU policy. ListingService invalidates an entry after every committed
+ * change to the listing, and an owner's entries are dropped after a committed
+ * {@link UserProfileUpdatedEvent}, since responses embed the owner's contact details.
+ *
+ * Every invalidation is stamped per listing or per owner. A load that overlaps an
+ * invalidation of its own listing or owner is returned but not cached, so a read that
+ * started before a commit can never reinstate old data; unrelated invalidations do
+ * not get in its way.
+ */
+@Component
+public class ListingDetailCache {
+
+    private static final Duration STAMP_TTL = Duration.ofMinutes(1);
+
+    private final Cache<Long, ListingDTO.ListingResponse> byId;
+    private final Cache<String, Long> idBySlug;
+    /** Cached listing ids per owner, so an owner's entries are dropped without a scan; sets only change inside compute */
+    private final ConcurrentHashMap<Long, Set<Long>> idsByOwner = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    // Stamps only matter to loads in flight, which finish long before they expire
+    private final Cache<Long, Long> listingInvalidatedAt;
+    private final Cache<Long, Long> ownerInvalidatedAt;
+    // Slug lookups read byId through asMap(), which Caffeine does not count, so they keep their own
+    private final LongAdder slugHits = new LongAdder();
+    private final LongAdder slugMisses = new LongAdder();
+
+    public ListingDetailCache(@Value("${listing.cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                              @Value("${listing.cache.max-slugs:200000}") long maxSlugs) {
+        this.byId = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, ListingDTO.ListingResponse response) -> estimateBytes(response))
+                .evictionListener((Long id, ListingDTO.ListingResponse response, RemovalCause cause) ->
+                        unlinkOwner(id, response))
+                .recordStats()
+                .build();
+        this.idBySlug = Caffeine.newBuilder()
+                .maximumSize(maxSlugs)
+                .build();
+        this.listingInvalidatedAt = Caffeine.newBuilder().expireAfterWrite(STAMP_TTL).build();
+        this.ownerInvalidatedAt = Caffeine.newBuilder().expireAfterWrite(STAMP_TTL).build();
+    }
+
+    public ListingDTO.ListingResponse getById(Long id, Supplier<ListingDTO.ListingResponse> loader) {
+        ListingDTO.ListingResponse cached = byId.getIfPresent(id);
+        return cached != null ? cached : load(loader);
+    }
+
+    public ListingDTO.ListingResponse getBySlug(String slug, Supplier<ListingDTO.ListingResponse> loader) {
+        Long id = idBySlug.getIfPresent(slug);
+        ListingDTO.ListingResponse cached = id != null ? byId.asMap().get(id) : null;
+        if (cached != null && slug.equals(cached.getSlug())) {
+            slugHits.increment();
+            return cached;
+        }
+        slugMisses.increment();
+        return load(loader);
+    }
+
+    /** Drop a listing after a committed change; {@code slug} may be null */
+    public void invalidate(Long id, String slug) {
+        listingInvalidatedAt.put(id, clock.incrementAndGet());
+        ListingDTO.ListingResponse removed = byId.asMap().remove(id);
+        if (removed != null) unlinkOwner(id, removed);
+        if (slug != null) idBySlug.invalidate(slug);
+    }
+
+    /** Drop every listing of {@code ownerId} after a committed change to the owner's profile */
+    public void invalidateOwner(Long ownerId) {
+        ownerInvalidatedAt.put(ownerId, clock.incrementAndGet());
+        Set<Long> ids = idsByOwner.remove(ownerId);
+        if (ids != null) byId.invalidateAll(ids);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+        invalidateOwner(event.userId());
+    }
+
+    public ListingDTO.CacheStats stats() {
+        CacheStats stats = byId.stats();
+        long hits = stats.hitCount() + slugHits.sum();
+        long misses = stats.missCount() + slugMisses.sum();
+        return ListingDTO.CacheStats.builder()
+                .entries(byId.estimatedSize())
+                .weightBytes(byId.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .maxWeightBytes(byId.policy().eviction().map(e -> e.getMaximum()).orElse(0L))
+                .hitCount(hits)
+                .missCount(misses)
+                .hitRate(hits + misses == 0 ? 1.0 : (double) hits / (hits + misses))
+                .evictionCount(stats.evictionCount())
+                .evictionWeight(stats.evictionWeight())
+                .slugEntries(idBySlug.estimatedSize())
+                .build();
+    }
+
+    private ListingDTO.ListingResponse load(Supplier<ListingDTO.ListingResponse> loader) {
+        long started = clock.get();
+        ListingDTO.ListingResponse loaded = loader.get();
+        Long id = loaded.getId();
+        Long ownerId = ownerId(loaded);
+        if (invalidatedSince(id, ownerId, started)) return loaded;
+
+        if (ownerId != null) {
+            idsByOwner.compute(ownerId, (owner, ids) -> {
+                Set<Long> linked = ids != null ? ids : new HashSet<>();
+                linked.add(id);
+                return linked;
+            });
+        }
+        byId.put(id, loaded);
+        // An invalidation that slipped in after the check above either removes this entry
+        // itself or is seen here
+        if (invalidatedSince(id, ownerId, started)) {
+            byId.asMap().remove(id, loaded);
+            return loaded;
+        }
+        idBySlug.put(loaded.getSlug(), id);
+        return loaded;
+    }
+
+    private boolean invalidatedSince(Long id, Long ownerId, long started) {
+        Long listingStamp = listingInvalidatedAt.getIfPresent(id);
+        if (listingStamp != null && listingStamp > started) return true;
+        Long ownerStamp = ownerId != null ? ownerInvalidatedAt.getIfPresent(ownerId) : null;
+        return ownerStamp != null && ownerStamp > started;
+    }
+
+    private void unlinkOwner(Long id, ListingDTO.ListingResponse response) {
+        Long ownerId = ownerId(response);
+        if (ownerId == null) return;
+        idsByOwner.computeIfPresent(ownerId, (owner, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Long ownerId(ListingDTO.ListingResponse response) {
+        return response.getOwner() != null ? response.getOwner().getId() : null;
+    }
+
+    /** Rough retained size: fixed overhead plus two bytes per character of the text fields */
+    private static int estimateBytes(ListingDTO.ListingResponse r) {
+        int chars = length(r.getTitle()) + length(r.getSlug()) + length(r.getDescription())
+                + length(r.getFeatures()) + length(r.getLocation()) + length(r.getMake()) + length(r.getModel());
+        if (r.getImages() != null) {
+            for (String url : r.getImages()) {
+                chars += length(url);
+            }
+        }
+        return 1024 + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
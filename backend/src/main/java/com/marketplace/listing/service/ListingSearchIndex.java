@@ -0,0 +1,679 @@
+package com.marketplace.listing.service;
+
+import com.marketplace.common.exception.BadRequestException;
+import com.marketplace.listing.dto.ListingDTO;
+import com.marketplace.listing.entity.Listing;
+import com.marketplace.listing.repository.ListingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over all listings for keyword search.
+ *
+ * Title, make, model, features and description are tokenized into weighted
+ * postings and ranked with BM25; location is tokenized into its own postings and
+ * matched as "all tokens present". Structured fields live in column arrays
+ * addressed by a per-listing ordinal, so filters and sorts never leave memory.
+ * The same columns back one-pass facet counts. ListingService updates the
+ * index after each commit; it is rebuilt at startup.
+ */
+@Component
+@Slf4j
+public class ListingSearchIndex {
+
+    /** The indexed fields of a listing, copied inside the transaction that changed it */
+    public record ListingDocument(Long id, String title, String description, String features,
+                                  String make, String model, Integer year, Integer mileage, BigDecimal price,
+                                  String location, String listingType, String status,
+                                  String fuelType, String transmission, LocalDateTime createdAt) {
+
+        public static ListingDocument of(Listing listing) {
+            return new ListingDocument(listing.getId(), listing.getTitle(), listing.getDescription(),
+                    listing.getFeatures(), listing.getMake(), listing.getModel(), listing.getYear(),
+                    listing.getMileage(), listing.getPrice(), listing.getLocation(), listing.getListingType(),
+                    listing.getStatus(), listing.getFuelType(), listing.getTransmission(), listing.getCreatedAt());
+        }
+    }
+
+    /** One page of matching listing ids, best first, and the total number of matches */
+    public record SearchHits(List<Long> ids, long total) {
+    }
+
+    /** A page of hits and the facets of the same matching set, read from one state of the index */
+    public record FacetedHits(SearchHits hits, ListingDTO.SearchFacets facets) {
+    }
+
+    public static final String SORT_RELEVANCE = "relevance";
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float MAKE_MODEL_WEIGHT = 2f;
+    private static final float FEATURES_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final int NONE = -1;
+    private static final int REBUILD_BATCH = 500;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "for", "with", "in", "on", "to");
+
+    private static final int FIRST_YEAR = 1950;
+    private static final int YEAR_SPAN = 5;
+    private static final int YEAR_BUCKETS = 30; // 1950-2099, earlier years counted in the first span
+
+    /** Upper edges of the price facet buckets, ascending */
+    @Value("${listing.facets.price-buckets:5000,10000,20000,50000,100000}")
+    private double[] priceEdges;
+
+    @Value("${listing.facets.budget-ms:50}")
+    private long facetBudgetMs;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ListingRepository listingRepository;
+
+    // ─── Guarded by lock ─────────────────────────────────────
+    private Contents contents = new Contents();
+    /** Changes applied while a rebuild is loading, replayed onto the rebuilt contents; null otherwise */
+    private List<Consumer<Contents>> changesDuringRebuild;
+
+    public ListingSearchIndex(ListingRepository listingRepository) {
+        this.listingRepository = listingRepository;
+    }
+
+    /**
+     * Loads every listing in id order, one short read per batch, into fresh contents that
+     * replace the live ones only once complete; searches keep using the old contents until then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Contents fresh = new Contents();
+        try {
+            long lastId = 0L;
+            List<Listing> batch;
+            do {
+                batch = listingRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastId);
+                for (Listing listing : batch) {
+                    fresh.put(ListingDocument.of(listing));
+                    lastId = listing.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // A batch may have been read before a change committed; the change is newer, so it wins
+            changesDuringRebuild.forEach(change -> change.accept(fresh));
+            changesDuringRebuild = null;
+            contents = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Listing search index rebuilt with {} listings", size());
+    }
+
+    // ─── MUTATIONS (call after commit) ───────────────────────
+
+    public void put(ListingDocument doc) {
+        apply(c -> c.put(doc));
+    }
+
+    public void remove(Long listingId) {
+        apply(c -> c.remove(listingId));
+    }
+
+    private void apply(Consumer<Contents> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(contents);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─── QUERIES ─────────────────────────────────────────────
+
+    /**
+     * Listings matching {@code request}: keywords in {@code q} (any term, ranked by BM25),
+     * make/model/type/status exact (case-insensitive), year and price ranges, and location
+     * tokens. Status defaults to APPROVED at the caller. Sort by relevance (default when
+     * {@code q} is given), createdAt, price, year or mileage.
+     */
+    public SearchHits search(ListingDTO.ListingSearchRequest request, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return contents.topK(request, contents.match(request), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@link #search} plus counts per make, fuel type, transmission, 5-year span and price
+     * bucket over every listing matching {@code request}, computed in one pass over the
+     * column arrays. The request is matched once, and the page and the facets both read
+     * that set; matching runs to completion, so the page and the totals are exact. Counting
+     * has {@code listing.facets.budget-ms}: once it runs out, the counts are scaled up
+     * from the part visited ({@code approximate = true}).
+     */
+    public FacetedHits searchWithFacets(ListingDTO.ListingSearchRequest request, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Matches matches = contents.match(request);
+            SearchHits hits = contents.topK(request, matches, offset, limit);
+            long deadline = System.nanoTime() + facetBudgetMs * 1_000_000L;
+            return new FacetedHits(hits, contents.facets(matches, priceEdges, deadline));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of listings matching {@code request}. The index's matching is close to, not
+     * identical with, the SQL filter (case-insensitive, location by token), so use it as an estimate.
+     */
+    public long count(ListingDTO.ListingSearchRequest request) {
+        lock.readLock().lock();
+        try {
+            return contents.match(request).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contents.liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ─── INTERNALS ───────────────────────────────────────────
+
+    /** Matching ordinals in ascending order; {@code scores} is null without keywords */
+    private record Matches(int[] ordinals, int count, float[] scores) {
+
+        static Matches none(float[] scores) {
+            return new Matches(new int[0], 0, scores);
+        }
+    }
+
+    private static boolean expired(long deadline) {
+        return System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Postings, dictionaries and columns of one generation of the index. The live instance
+     * is only touched under {@link #lock}; a rebuild fills a private one and swaps it in.
+     */
+    private static final class Contents {
+        private final Map<Long, Integer> ordinalById = new HashMap<>();
+        private final Map<String, PostingList> textPostings = new HashMap<>();
+        private final Map<String, PostingList> locationPostings = new HashMap<>();
+        private final Dictionary makes = new Dictionary();
+        private final Dictionary models = new Dictionary();
+        private final Dictionary listingTypes = new Dictionary();
+        private final Dictionary statuses = new Dictionary();
+        private final Dictionary fuelTypes = new Dictionary();
+        private final Dictionary transmissions = new Dictionary();
+        private final BitSet live = new BitSet();
+        private long[] ids = new long[0];
+        private int[] make = new int[0];
+        private int[] model = new int[0];
+        private int[] listingType = new int[0];
+        private int[] status = new int[0];
+        private int[] fuelType = new int[0];
+        private int[] transmission = new int[0];
+        private int[] year = new int[0];
+        private int[] mileage = new int[0];
+        private double[] price = new double[0];
+        private long[] createdAt = new long[0];
+        private float[] docLength = new float[0];
+        /** Per ordinal: its terms, and where each term's posting list holds its entry */
+        private String[][] docTerms = new String[0][];
+        private int[][] docTermPositions = new int[0][];
+        private String[][] docLocationTerms = new String[0][];
+        private int[][] docLocationPositions = new int[0][];
+        private int[] freeOrdinals = new int[16];
+        private int freeCount;
+        private int nextOrdinal;
+        private int liveCount;
+        private double totalLength;
+
+        void put(ListingDocument doc) {
+            Integer existing = ordinalById.get(doc.id());
+            int ord;
+            if (existing != null) {
+                unindex(existing);
+                ord = existing;
+            } else {
+                ord = allocateOrdinal();
+                ordinalById.put(doc.id(), ord);
+            }
+
+            ids[ord] = doc.id();
+            make[ord] = makes.intern(doc.make());
+            model[ord] = models.intern(doc.model());
+            listingType[ord] = listingTypes.intern(doc.listingType());
+            status[ord] = statuses.intern(doc.status());
+            fuelType[ord] = fuelTypes.intern(doc.fuelType());
+            transmission[ord] = transmissions.intern(doc.transmission());
+            year[ord] = doc.year() != null ? doc.year() : Integer.MIN_VALUE;
+            mileage[ord] = doc.mileage() != null ? doc.mileage() : Integer.MIN_VALUE;
+            price[ord] = doc.price() != null ? doc.price().doubleValue() : Double.NaN;
+            createdAt[ord] = doc.createdAt() != null
+                    ? doc.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+
+            Map<String, Float> weights = new HashMap<>();
+            float length = addTokens(weights, doc.title(), TITLE_WEIGHT)
+                    + addTokens(weights, doc.make(), MAKE_MODEL_WEIGHT)
+                    + addTokens(weights, doc.model(), MAKE_MODEL_WEIGHT)
+                    + addTokens(weights, doc.features(), FEATURES_WEIGHT)
+                    + addTokens(weights, doc.description(), DESCRIPTION_WEIGHT);
+            String[] terms = weights.keySet().toArray(new String[0]);
+            int[] termPositions = new int[terms.length];
+            for (int k = 0; k < terms.length; k++) {
+                termPositions[k] = textPostings.computeIfAbsent(terms[k], t -> new PostingList())
+                        .add(ord, weights.get(terms[k]), k);
+            }
+            docTerms[ord] = terms;
+            docTermPositions[ord] = termPositions;
+
+            String[] locationTerms = new LinkedHashSet<>(tokenize(doc.location())).toArray(new String[0]);
+            int[] locationPositions = new int[locationTerms.length];
+            for (int k = 0; k < locationTerms.length; k++) {
+                locationPositions[k] = locationPostings.computeIfAbsent(locationTerms[k], t -> new PostingList())
+                        .add(ord, 1f, k);
+            }
+            docLocationTerms[ord] = locationTerms;
+            docLocationPositions[ord] = locationPositions;
+
+            docLength[ord] = length;
+            totalLength += length;
+            live.set(ord);
+            liveCount++;
+        }
+
+        void remove(Long listingId) {
+            Integer ord = ordinalById.remove(listingId);
+            if (ord == null) return;
+            unindex(ord);
+            if (freeCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            }
+            freeOrdinals[freeCount++] = ord;
+        }
+
+        /** The page [offset, offset + limit) of {@code matches} in the request's order */
+        SearchHits topK(ListingDTO.ListingSearchRequest request, Matches matches, int offset, int limit) {
+            if (matches.count() <= offset) {
+                return new SearchHits(List.of(), matches.count());
+            }
+
+            Comparator<Integer> order = order(request, matches.scores());
+            int k = offset + limit;
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(k, matches.count()) + 1, order.reversed());
+            for (int i = 0; i < matches.count(); i++) {
+                top.add(matches.ordinals()[i]);
+                if (top.size() > k) top.poll();
+            }
+            List<Integer> best = new ArrayList<>(top);
+            best.sort(order);
+
+            List<Long> page = new ArrayList<>(limit);
+            for (int i = offset; i < best.size(); i++) {
+                page.add(ids[best.get(i)]);
+            }
+            return new SearchHits(page, matches.count());
+        }
+
+        ListingDTO.SearchFacets facets(Matches matches, double[] priceEdges, long deadline) {
+            int[] makeCounts = new int[makes.size()];
+            int[] fuelCounts = new int[fuelTypes.size()];
+            int[] transmissionCounts = new int[transmissions.size()];
+            int[] yearCounts = new int[YEAR_BUCKETS];
+            int[] priceCounts = new int[priceEdges.length + 1];
+
+            int visited = 0;
+            for (; visited < matches.count(); visited++) {
+                // Checking the clock per document would cost more than counting it
+                if ((visited & 4095) == 4095 && expired(deadline)) break;
+                int d = matches.ordinals()[visited];
+                if (make[d] >= 0) makeCounts[make[d]]++;
+                if (fuelType[d] >= 0) fuelCounts[fuelType[d]]++;
+                if (transmission[d] >= 0) transmissionCounts[transmission[d]]++;
+                if (year[d] != Integer.MIN_VALUE) yearCounts[yearBucket(year[d])]++;
+                if (!Double.isNaN(price[d])) priceCounts[priceBucket(priceEdges, price[d])]++;
+            }
+
+            double scale = visited == 0 ? 0 : (double) matches.count() / visited;
+            List<ListingDTO.FacetCount> yearFacet = new ArrayList<>();
+            for (int i = YEAR_BUCKETS - 1; i >= 0; i--) {
+                if (yearCounts[i] == 0) continue;
+                int from = FIRST_YEAR + i * YEAR_SPAN;
+                yearFacet.add(new ListingDTO.FacetCount(from + "-" + (from + YEAR_SPAN - 1), scaled(yearCounts[i], scale)));
+            }
+            List<ListingDTO.FacetCount> priceFacet = new ArrayList<>();
+            for (int i = 0; i < priceCounts.length; i++) {
+                if (priceCounts[i] == 0) continue;
+                String label = i == 0 ? "<" + plain(priceEdges[0])
+                        : i == priceEdges.length ? plain(priceEdges[i - 1]) + "+"
+                        : plain(priceEdges[i - 1]) + "-" + plain(priceEdges[i]);
+                priceFacet.add(new ListingDTO.FacetCount(label, scaled(priceCounts[i], scale)));
+            }
+
+            return ListingDTO.SearchFacets.builder()
+                    .total(matches.count())
+                    .approximate(visited < matches.count())
+                    .make(byCount(makes, makeCounts, scale))
+                    .fuelType(byCount(fuelTypes, fuelCounts, scale))
+                    .transmission(byCount(transmissions, transmissionCounts, scale))
+                    .year(yearFacet)
+                    .price(priceFacet)
+                    .build();
+        }
+
+        Matches match(ListingDTO.ListingSearchRequest request) {
+            int makeCode = codeOrAny(makes, request.getMake());
+            int modelCode = codeOrAny(models, request.getModel());
+            int typeCode = codeOrAny(listingTypes, request.getListingType());
+            int statusCode = codeOrAny(statuses, request.getStatus());
+            if (makeCode == Dictionary.MISSING || modelCode == Dictionary.MISSING
+                    || typeCode == Dictionary.MISSING || statusCode == Dictionary.MISSING) {
+                return Matches.none(null);
+            }
+
+            BitSet candidates;
+            float[] scores = null;
+            List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(request.getQ())));
+            if (!terms.isEmpty()) {
+                candidates = new BitSet(nextOrdinal);
+                scores = new float[nextOrdinal];
+                float avgLength = liveCount == 0 ? 1f : (float) (totalLength / liveCount);
+                for (String term : terms) {
+                    PostingList postings = textPostings.get(term);
+                    if (postings == null) continue;
+                    double idf = Math.log(1 + (liveCount - postings.size + 0.5) / (postings.size + 0.5));
+                    for (int i = 0; i < postings.size; i++) {
+                        int d = postings.docs[i];
+                        float w = postings.weights[i];
+                        float norm = K1 * (1 - B + B * docLength[d] / avgLength);
+                        scores[d] += (float) (idf * w * (K1 + 1) / (w + norm));
+                        candidates.set(d);
+                    }
+                }
+            } else {
+                candidates = (BitSet) live.clone();
+            }
+
+            for (String term : tokenize(request.getLocation())) {
+                PostingList postings = locationPostings.get(term);
+                if (postings == null) return Matches.none(scores);
+                candidates.and(postings.toBitSet(nextOrdinal));
+            }
+
+            int minYear = request.getMinYear() != null ? request.getMinYear() : Integer.MIN_VALUE;
+            int maxYear = request.getMaxYear() != null ? request.getMaxYear() : Integer.MAX_VALUE;
+            double minPrice = request.getMinPrice() != null ? request.getMinPrice().doubleValue() : Double.NEGATIVE_INFINITY;
+            double maxPrice = request.getMaxPrice() != null ? request.getMaxPrice().doubleValue() : Double.POSITIVE_INFINITY;
+            boolean yearFilter = request.getMinYear() != null || request.getMaxYear() != null;
+            boolean priceFilter = request.getMinPrice() != null || request.getMaxPrice() != null;
+
+            int[] ordinals = new int[candidates.cardinality()];
+            int count = 0;
+            for (int d = candidates.nextSetBit(0); d >= 0; d = candidates.nextSetBit(d + 1)) {
+                if (makeCode != NONE && make[d] != makeCode) continue;
+                if (modelCode != NONE && model[d] != modelCode) continue;
+                if (typeCode != NONE && listingType[d] != typeCode) continue;
+                if (statusCode != NONE && status[d] != statusCode) continue;
+                if (yearFilter && (year[d] == Integer.MIN_VALUE || year[d] < minYear || year[d] > maxYear)) continue;
+                if (priceFilter && (Double.isNaN(price[d]) || price[d] < minPrice || price[d] > maxPrice)) continue;
+                ordinals[count++] = d;
+            }
+            return new Matches(ordinals, count, scores);
+        }
+
+        private Comparator<Integer> order(ListingDTO.ListingSearchRequest request, float[] scores) {
+            String sortBy = request.getSortBy();
+            if (sortBy == null) {
+                sortBy = scores != null ? SORT_RELEVANCE : "createdAt";
+            }
+            boolean ascending = "asc".equalsIgnoreCase(request.getSortOrder());
+            Comparator<Integer> primary = switch (sortBy) {
+                case SORT_RELEVANCE -> {
+                    if (scores == null) {
+                        throw new BadRequestException("Sorting by relevance needs a keyword query (q)");
+                    }
+                    // Best match first regardless of sortOrder
+                    ascending = false;
+                    yield Comparator.comparingDouble(d -> scores[d]);
+                }
+                case "createdAt" -> Comparator.comparingLong(d -> createdAt[d]);
+                case "price" -> Comparator.comparingDouble(d -> price[d]);
+                case "year" -> Comparator.comparingInt(d -> year[d]);
+                case "mileage" -> Comparator.comparingInt(d -> mileage[d]);
+                default -> throw new BadRequestException("Unsupported sortBy: " + sortBy);
+            };
+            if (!ascending) primary = primary.reversed();
+            // Newest first, then highest id, as a stable tie-break
+            return primary
+                    .thenComparing(Comparator.<Integer>comparingLong(d -> createdAt[d]).reversed())
+                    .thenComparing(Comparator.<Integer>comparingLong(d -> ids[d]).reversed());
+        }
+
+        private void unindex(int ord) {
+            String[] terms = docTerms[ord];
+            for (int k = 0; k < terms.length; k++) {
+                removePosting(textPostings, terms[k], docTermPositions[ord][k], docTermPositions);
+            }
+            String[] locationTerms = docLocationTerms[ord];
+            for (int k = 0; k < locationTerms.length; k++) {
+                removePosting(locationPostings, locationTerms[k], docLocationPositions[ord][k], docLocationPositions);
+            }
+            totalLength -= docLength[ord];
+            live.clear(ord);
+            liveCount--;
+        }
+
+        private static void removePosting(Map<String, PostingList> postings, String term, int position,
+                                          int[][] positionsByOrdinal) {
+            PostingList list = postings.get(term);
+            if (list == null) return;
+            list.removeAt(position, positionsByOrdinal);
+            if (list.size == 0) postings.remove(term);
+        }
+
+        private int allocateOrdinal() {
+            if (freeCount > 0) return freeOrdinals[--freeCount];
+            int ord = nextOrdinal++;
+            if (ord >= ids.length) {
+                int capacity = Math.max(1024, ids.length * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                make = Arrays.copyOf(make, capacity);
+                model = Arrays.copyOf(model, capacity);
+                listingType = Arrays.copyOf(listingType, capacity);
+                status = Arrays.copyOf(status, capacity);
+                fuelType = Arrays.copyOf(fuelType, capacity);
+                transmission = Arrays.copyOf(transmission, capacity);
+                year = Arrays.copyOf(year, capacity);
+                mileage = Arrays.copyOf(mileage, capacity);
+                price = Arrays.copyOf(price, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                docLength = Arrays.copyOf(docLength, capacity);
+                docTerms = Arrays.copyOf(docTerms, capacity);
+                docTermPositions = Arrays.copyOf(docTermPositions, capacity);
+                docLocationTerms = Arrays.copyOf(docLocationTerms, capacity);
+                docLocationPositions = Arrays.copyOf(docLocationPositions, capacity);
+            }
+            return ord;
+        }
+    }
+
+    private static int yearBucket(int year) {
+        return Math.max(0, Math.min(YEAR_BUCKETS - 1, (year - FIRST_YEAR) / YEAR_SPAN));
+    }
+
+    private static int priceBucket(double[] priceEdges, double value) {
+        // Bucket i holds [edge i-1, edge i)
+        int i = Arrays.binarySearch(priceEdges, value);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private static List<ListingDTO.FacetCount> byCount(Dictionary dictionary, int[] counts, double scale) {
+        List<ListingDTO.FacetCount> facet = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                facet.add(new ListingDTO.FacetCount(dictionary.name(code), scaled(counts[code], scale)));
+            }
+        }
+        facet.sort(Comparator.comparingLong(ListingDTO.FacetCount::getCount).reversed()
+                .thenComparing(ListingDTO.FacetCount::getValue));
+        return facet;
+    }
+
+    private static long scaled(int count, double scale) {
+        return Math.round(count * scale);
+    }
+
+    private static String plain(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static int codeOrAny(Dictionary dictionary, String value) {
+        return value == null || value.isBlank() ? NONE : dictionary.code(value);
+    }
+
+    /** Adds {@code weight} per occurrence of each token; returns the weighted token count */
+    private static float addTokens(Map<String, Float> weights, String text, float weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            weights.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return Collections.emptyList();
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.isEmpty() || STOP_WORDS.contains(token)) continue;
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Unordered (ordinal, weight) pairs of one term. Each entry also records which of its
+     * document's terms it is, so a removal can swap in the last entry and tell that
+     * entry's document where it moved, without scanning.
+     */
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int[] termIndexes = new int[4];
+        private int size;
+
+        /** Appends an entry and returns its position */
+        int add(int doc, float weight, int termIndex) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                termIndexes = Arrays.copyOf(termIndexes, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            termIndexes[size] = termIndex;
+            return size++;
+        }
+
+        void removeAt(int position, int[][] positionsByOrdinal) {
+            size--;
+            if (position == size) return;
+            docs[position] = docs[size];
+            weights[position] = weights[size];
+            termIndexes[position] = termIndexes[size];
+            positionsByOrdinal[docs[position]][termIndexes[position]] = position;
+        }
+
+        BitSet toBitSet(int capacity) {
+            BitSet bits = new BitSet(capacity);
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+            return bits;
+        }
+    }
+
+    /** Case-insensitive string ↔ code mapping for a low-cardinality column; codes are never reused */
+    static final class Dictionary {
+        static final int MISSING = -2;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        /** Code of {@code value}, adding it if new; {@link #NONE} for null */
+        int intern(String value) {
+            if (value == null) return NONE;
+            return codes.computeIfAbsent(value.trim().toLowerCase(Locale.ROOT), key -> {
+                names.add(value.trim());
+                return names.size() - 1;
+            });
+        }
+
+        /** Code of {@code value}, or {@link #MISSING} if no listing ever had it */
+        int code(String value) {
+            Integer code = codes.get(value.trim().toLowerCase(Locale.ROOT));
+            return code != null ? code : MISSING;
+        }
+
+        String name(int code) {
+            return code >= 0 ? names.get(code) : null;
+        }
+
+        int size() {
+            return names.size();
+        }
+    }
+}
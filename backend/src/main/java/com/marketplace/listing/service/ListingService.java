@@ -5,48 +5,114 @@ import com.marketplace.auth.repository.UserRepository;
 import com.marketplace.common.constants.Constants;
 import com.marketplace.common.exception.BadRequestException;
 import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.payload.CursorPage;
+import com.marketplace.common.util.CursorCodec;
+import com.marketplace.common.util.TransactionUtils;
 import com.marketplace.listing.dto.ListingDTO;
 import com.marketplace.listing.entity.Listing;
 import com.marketplace.listing.entity.ListingImage;
+import com.marketplace.listing.repository.ListingImageRepository;
 import com.marketplace.listing.repository.ListingRepository;
+import com.marketplace.listing.repository.ListingSpecifications;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ListingService {
 
+    private static final Set<String> SEARCH_SORT_FIELDS = Set.of("createdAt", "price", "year", "mileage");
+
     @Autowired
     private ListingRepository listingRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ListingImageRepository listingImageRepository;
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private ListingDetailCache listingDetailCache;
+
+    @Autowired
+    private SlugAllocator slugAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** Detail-cache misses load in here; hits never open a transaction */
+    private TransactionTemplate readOnlyTransaction;
+
+    @Value("${listing.slug.max-attempts:8}")
+    private int slugMaxAttempts;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Creates the listing under a free slug. The slug comes from a per-title counter; if
+     * another writer takes it first, the insert is retried in a fresh transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ListingDTO.ListingResponse createListing(ListingDTO.CreateListingRequest request, Long userId) {
+        for (int attempt = 0; ; attempt++) {
+            int slugAttempt = attempt;
+            try {
+                return transactionTemplate.execute(status -> insertListing(request, userId, slugAttempt));
+            } catch (DataIntegrityViolationException ex) {
+                if (attempt + 1 >= slugMaxAttempts || !SlugAllocator.isSlugConflict(ex)) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private ListingDTO.ListingResponse insertListing(ListingDTO.CreateListingRequest request, Long userId,
+                                                     int slugAttempt) {
         User owner = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        // Generate unique slug
-        String baseSlug = com.marketplace.common.util.SlugUtil.generateSlug(request.getTitle());
-        String slug = baseSlug;
-        int attempt = 0;
-        while (listingRepository.findBySlug(slug).isPresent()) {
-            attempt++;
-            slug = com.marketplace.common.util.SlugUtil.generateUniqueSlug(baseSlug, attempt);
-        }
+        SlugAllocator.Slug slug = slugAllocator.allocate(request.getTitle(), slugAttempt);
 
         Listing listing = Listing.builder()
                 .title(request.getTitle())
-                .slug(slug)
+                .slug(slug.value())
+                .slugBase(slug.base())
+                .slugSuffix(slug.suffix())
                 .description(request.getDescription())
                 .price(request.getPrice())
                 .make(request.getMake())
@@ -79,6 +145,7 @@ public class ListingService {
         }
 
         listing = listingRepository.save(listing);
+        afterListingChange(listing);
         return convertToResponse(listing);
     }
 
@@ -133,6 +200,7 @@ public class ListingService {
         }
 
         listing = listingRepository.save(listing);
+        afterListingChange(listing);
         return convertToResponse(listing);
     }
 
@@ -145,51 +213,138 @@ public class ListingService {
         }
 
         listingRepository.delete(listing);
+        String slug = listing.getSlug();
+        TransactionUtils.afterCommit(() -> {
+            listingSearchIndex.remove(listingId);
+            listingDetailCache.invalidate(listingId, slug);
+        });
     }
 
+    /** Served from the detail cache; the database is read only on a miss */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ListingDTO.ListingResponse getListingById(Long listingId) {
-        Listing listing = listingRepository.findById(listingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Listing not found"));
-        return convertToResponse(listing);
+        return listingDetailCache.getById(listingId, () -> readOnlyTransaction.execute(status -> {
+            Listing listing = listingRepository.findById(listingId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Listing not found"));
+            return convertToResponse(listing);
+        }));
     }
 
     public Page<ListingDTO.ListingResponse> searchListings(ListingDTO.ListingSearchRequest request) {
         int page = request.getPage() != null ? request.getPage() : 0;
         int size = request.getSize() != null ? request.getSize() : 10;
-        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
-        String sortOrder = request.getSortOrder() != null ? request.getSortOrder() : "desc";
 
-        Sort sort = sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        if (request.getQ() != null && !request.getQ().isBlank()) {
+            return searchIndexed(request, page, size);
+        }
 
-        String status = request.getStatus() != null ? request.getStatus() : Constants.LISTING_STATUS_APPROVED;
+        Pageable pageable = PageRequest.of(page, size, searchSort(request));
 
-        Page<Listing> listings = listingRepository.searchListings(
-                request.getMake(),
-                request.getModel(),
-                request.getMinYear(),
-                request.getMaxYear(),
-                request.getMinPrice(),
-                request.getMaxPrice(),
-                request.getLocation(),
-                request.getListingType(),
-                status,
-                pageable);
+        if (request.getStatus() == null) {
+            request.setStatus(Constants.LISTING_STATUS_APPROVED);
+        }
 
-        return listings.map(this::convertToResponse);
+        Page<Listing> listings = listingRepository.findAll(ListingSpecifications.forSearch(request), pageable);
+
+        return convertPage(listings);
     }
 
+    /**
+     * Keyset-paginated search over the same filters and sorts: each page seeks past the
+     * (sort key, id) in {@code cursor} and reads {@code size + 1} rows, with no OFFSET and
+     * no COUNT, so deep pages cost the same as the first. No cursor = first page.
+     */
+    @Transactional(readOnly = true)
+    public ListingDTO.CursorSearchResponse searchListingsByCursor(ListingDTO.ListingSearchRequest request,
+                                                                  String cursor, boolean withTotal) {
+        if (request.getQ() != null && !request.getQ().isBlank()) {
+            throw new BadRequestException("Keyword search is paged by page and size, not by cursor");
+        }
+        int size = CursorPage.clampSize(request.getSize() != null ? request.getSize() : 10);
+        if (request.getStatus() == null) {
+            request.setStatus(Constants.LISTING_STATUS_APPROVED);
+        }
+
+        String sortBy = searchSortField(request);
+        boolean ascending = "asc".equalsIgnoreCase(request.getSortOrder());
+        Specification<Listing> spec = ListingSpecifications.forSearch(request);
+        SearchCursor after = SearchCursor.decode(cursor, sortBy, ascending);
+        if (after != null) {
+            spec = spec.and(ListingSpecifications.after(sortBy, ascending, after.key(), after.id()));
+        }
+
+        Sort sort = searchSort(request);
+        List<Listing> rows = listingRepository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<Listing> page = hasMore ? rows.subList(0, size) : rows;
+        Listing last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        CursorPage<ListingDTO.ListingResponse> results = CursorPage.<ListingDTO.ListingResponse>builder()
+                .content(convertToResponses(page))
+                .nextCursor(hasMore ? SearchCursor.encode(last, sortBy, ascending) : null)
+                .hasMore(hasMore)
+                .size(size)
+                .build();
+        return ListingDTO.CursorSearchResponse.builder()
+                .results(results)
+                .approximateTotal(withTotal ? listingSearchIndex.count(request) : null)
+                .build();
+    }
+
+    /**
+     * Search results plus facet counts for the same filter, both from the in-memory index so
+     * they agree on what matches (case-insensitive make/model, location by token).
+     */
+    public ListingDTO.FacetedSearchResponse searchListingsWithFacets(ListingDTO.ListingSearchRequest request) {
+        int page = request.getPage() != null ? request.getPage() : 0;
+        int size = request.getSize() != null ? request.getSize() : 10;
+        if (request.getStatus() == null) {
+            request.setStatus(Constants.LISTING_STATUS_APPROVED);
+        }
+        ListingSearchIndex.FacetedHits faceted = listingSearchIndex.searchWithFacets(request, page * size, size);
+        return ListingDTO.FacetedSearchResponse.builder()
+                .results(loadHits(faceted.hits(), page, size))
+                .facets(faceted.facets())
+                .build();
+    }
+
+    /**
+     * Keyword search served by the in-memory index; only the page's rows are loaded.
+     */
+    private Page<ListingDTO.ListingResponse> searchIndexed(ListingDTO.ListingSearchRequest request, int page, int size) {
+        if (request.getStatus() == null) {
+            request.setStatus(Constants.LISTING_STATUS_APPROVED);
+        }
+        return loadHits(listingSearchIndex.search(request, page * size, size), page, size);
+    }
+
+    private Page<ListingDTO.ListingResponse> loadHits(ListingSearchIndex.SearchHits hits, int page, int size) {
+        Map<Long, Listing> byId = listingRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Listing::getId, Function.identity()));
+        List<Listing> listings = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull) // deleted since the index was read
+                .collect(Collectors.toList());
+        List<ListingDTO.ListingResponse> content = convertToResponses(listings);
+        return new PageImpl<>(content, PageRequest.of(page, size), hits.total());
+    }
+
+    /** Served from the detail cache; the database is read only on a miss */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ListingDTO.ListingResponse getListingBySlug(String slug) {
-        Listing listing = listingRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Listing not found with slug: " + slug));
-        return convertToResponse(listing);
+        return listingDetailCache.getBySlug(slug, () -> readOnlyTransaction.execute(status -> {
+            Listing listing = listingRepository.findBySlug(slug)
+                    .orElseThrow(() -> new ResourceNotFoundException("Listing not found with slug: " + slug));
+            return convertToResponse(listing);
+        }));
+    }
+
+    public ListingDTO.CacheStats getDetailCacheStats() {
+        return listingDetailCache.stats();
     }
 
     public List<ListingDTO.ListingResponse> getOwnerListings(Long ownerId) {
-        return listingRepository.findByOwnerId(ownerId, Pageable.unpaged())
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(listingRepository.findByOwnerId(ownerId, Pageable.unpaged()).getContent());
     }
 
     public void approveListing(Long listingId) {
@@ -197,6 +352,7 @@ public class ListingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Listing not found"));
         listing.setStatus(Constants.LISTING_STATUS_APPROVED);
         listingRepository.save(listing);
+        afterListingChange(listing);
     }
 
     public void rejectListing(Long listingId) {
@@ -204,12 +360,112 @@ public class ListingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Listing not found"));
         listing.setStatus(Constants.LISTING_STATUS_REJECTED);
         listingRepository.save(listing);
+        afterListingChange(listing);
     }
 
     public Page<ListingDTO.ListingResponse> getPendingListings(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<Listing> listings = listingRepository.findByStatus(Constants.LISTING_STATUS_PENDING, pageable);
-        return listings.map(this::convertToResponse);
+        return convertPage(listings);
+    }
+
+    /** Only indexed, user-facing columns may be sorted on; newest first by default */
+    private static Sort searchSort(ListingDTO.ListingSearchRequest request) {
+        Sort sort = Sort.by(searchSortField(request));
+        sort = "asc".equalsIgnoreCase(request.getSortOrder()) ? sort.ascending() : sort.descending();
+        // Deterministic order across pages when the sort key ties
+        return sort.and(Sort.by("id").descending());
+    }
+
+    private static String searchSortField(ListingDTO.ListingSearchRequest request) {
+        String sortBy = request.getSortBy() != null ? request.getSortBy() : "createdAt";
+        if (!SEARCH_SORT_FIELDS.contains(sortBy)) {
+            throw new BadRequestException("Unsupported sortBy: " + sortBy + ". Allowed: " + SEARCH_SORT_FIELDS);
+        }
+        return sortBy;
+    }
+
+    /**
+     * Position in a keyset search: the last row's sort key and id. The sort it was issued
+     * for is encoded too, so a cursor cannot be replayed against a different order.
+     */
+    private record SearchCursor(Comparable<?> key, Long id) {
+
+        static String encode(Listing last, String sortBy, boolean ascending) {
+            Object key = switch (sortBy) {
+                case "price" -> last.getPrice() != null ? last.getPrice().toPlainString() : null;
+                case "year" -> last.getYear();
+                case "mileage" -> last.getMileage();
+                default -> last.getCreatedAt();
+            };
+            return CursorCodec.encode(sortBy, ascending ? "asc" : "desc", key, last.getId());
+        }
+
+        static SearchCursor decode(String cursor, String sortBy, boolean ascending) {
+            if (cursor == null || cursor.isBlank()) return null;
+            String[] parts = CursorCodec.decode(cursor, 4);
+            if (!parts[0].equals(sortBy) || !parts[1].equals(ascending ? "asc" : "desc")) {
+                throw new BadRequestException("Cursor was issued for a different sort order");
+            }
+            try {
+                String raw = parts[2];
+                Comparable<?> key = raw.isEmpty() ? null : switch (sortBy) {
+                    case "price" -> new BigDecimal(raw);
+                    case "year", "mileage" -> Integer.valueOf(raw);
+                    default -> LocalDateTime.parse(raw);
+                };
+                return new SearchCursor(key, Long.parseLong(parts[3]));
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+
+    /** Bring the search index and detail cache in line with the listing once the change commits */
+    private void afterListingChange(Listing listing) {
+        ListingSearchIndex.ListingDocument document = ListingSearchIndex.ListingDocument.of(listing);
+        Long listingId = listing.getId();
+        String slug = listing.getSlug();
+        TransactionUtils.afterCommit(() -> {
+            listingSearchIndex.put(document);
+            listingDetailCache.invalidate(listingId, slug);
+        });
+    }
+
+    // ─── RESPONSE ASSEMBLY ───────────────────────────────────
+
+    private Page<ListingDTO.ListingResponse> convertPage(Page<Listing> listings) {
+        return new PageImpl<>(convertToResponses(listings.getContent()), listings.getPageable(),
+                listings.getTotalElements());
+    }
+
+    /**
+     * Responses for many listings with two extra statements in total: one for all
+     * images and one for all owners, instead of two lazy loads per listing.
+     */
+    private List<ListingDTO.ListingResponse> convertToResponses(List<Listing> listings) {
+        if (listings.isEmpty()) return List.of();
+
+        List<Long> listingIds = listings.stream().map(Listing::getId).collect(Collectors.toList());
+        Map<Long, List<String>> imagesByListing = listingImageRepository.findUrlsByListingIdIn(listingIds).stream()
+                .collect(Collectors.groupingBy(ListingImageRepository.ImageUrlView::getListingId,
+                        Collectors.mapping(ListingImageRepository.ImageUrlView::getImageUrl, Collectors.toList())));
+
+        // getId() on the lazy owner proxy does not initialize it
+        Set<Long> ownerIds = listings.stream().map(l -> l.getOwner().getId()).collect(Collectors.toSet());
+        Map<Long, ListingDTO.OwnerInfo> owners = listingRepository.findOwnersByIdIn(ownerIds).stream()
+                .collect(Collectors.toMap(ListingRepository.OwnerView::getId, o -> ListingDTO.OwnerInfo.builder()
+                        .id(o.getId())
+                        .firstName(o.getFirstName())
+                        .lastName(o.getLastName())
+                        .email(o.getEmail())
+                        .phone(o.getPhone())
+                        .build()));
+
+        return listings.stream()
+                .map(l -> buildResponse(l, owners.get(l.getOwner().getId()),
+                        imagesByListing.getOrDefault(l.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 
     private ListingDTO.ListingResponse convertToResponse(Listing listing) {
@@ -225,6 +481,11 @@ public class ListingService {
                 .map(ListingImage::getImageUrl)
                 .collect(Collectors.toList());
 
+        return buildResponse(listing, ownerInfo, imageUrls);
+    }
+
+    private ListingDTO.ListingResponse buildResponse(Listing listing, ListingDTO.OwnerInfo ownerInfo,
+                                                     List<String> imageUrls) {
         return ListingDTO.ListingResponse.builder()
                 .id(listing.getId())
                 .slug(listing.getSlug())
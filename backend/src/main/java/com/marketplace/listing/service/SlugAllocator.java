@@ -0,0 +1,114 @@
+package com.marketplace.listing.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marketplace.common.util.SlugUtil;
+import com.marketplace.listing.repository.ListingRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Picks a free listing slug: the title's base slug, then {@code base-1}, {@code base-2}, ...
+ *
+ * The suffix is stored next to the slug (slug_base, slug_suffix) rather than parsed back
+ * out of it, so a title that itself ends in a number is never mistaken for a suffix. Each
+ * base has an in-memory counter seeded once from the highest stored suffix, so concurrent
+ * creates in this instance never pick the same slug. Another instance, or an older slug
+ * that happens to read {@code base-n}, can still collide; the unique index rejects the
+ * insert, and the caller retries with a higher {@code attempt}, which re-reads the stored
+ * maximum before counting on.
+ */
+@Component
+public class SlugAllocator {
+
+    /** Name of the unique key on vehicles.slug (V39, and the Listing entity) */
+    public static final String SLUG_UNIQUE_KEY = "uk_vehicles_slug";
+
+    private static final String FALLBACK_SLUG = "listing";
+    private static final int MAX_COUNTED_BASES = 10_000;
+    private static final Pattern SUFFIX = Pattern.compile("[1-9][0-9]{0,17}");
+
+    /** A slug split into the title's base and the suffix appended to it (0 = none) */
+    public record Slug(String base, long suffix) {
+
+        public String value() {
+            return suffix == 0 ? base : base + "-" + suffix;
+        }
+    }
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    // Last suffix handed out per base; an evicted base is re-seeded from the database
+    private final Cache<String, AtomicLong> lastSuffix = Caffeine.newBuilder()
+            .maximumSize(MAX_COUNTED_BASES)
+            .build();
+
+    public Slug allocate(String title, int attempt) {
+        String base = baseOf(title);
+        AtomicLong last = lastSuffix.get(base, this::highestSuffix);
+        if (attempt > 0) {
+            last.accumulateAndGet(highestSuffix(base).get(), Math::max);
+        }
+        return new Slug(base, last.incrementAndGet());
+    }
+
+    /**
+     * Base and suffix of a slug stored before they had their own columns: the suffix is
+     * only split off when the rest is exactly the slug of the listing's own title.
+     */
+    public static Slug parseLegacy(String title, String slug) {
+        String base = baseOf(title);
+        if (slug.length() > base.length() + 1 && slug.startsWith(base + "-")
+                && SUFFIX.matcher(slug.substring(base.length() + 1)).matches()) {
+            return new Slug(base, Long.parseLong(slug.substring(base.length() + 1)));
+        }
+        return new Slug(slug, 0);
+    }
+
+    /**
+     * Whether the violation is the slug's unique key: an integrity constraint SQLState
+     * (class 23) naming {@link #SLUG_UNIQUE_KEY}.
+     */
+    public static boolean isSlugConflict(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String sqlState = violation.getSQLState();
+                String name = violation.getConstraintName();
+                if (sqlState == null || !sqlState.startsWith("23") || name == null) return false;
+                return SLUG_UNIQUE_KEY.equals(bareConstraintName(name));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * MySQL reports the key as {@code vehicles.uk_vehicles_slug}; H2 reports its backing
+     * index and the row, as {@code "public.uk_vehicles_slug_INDEX_7 ON public.vehicles(slug) ..."}.
+     */
+    private static String bareConstraintName(String reported) {
+        String name = reported.replace("\"", "").replace("`", "");
+        int on = name.indexOf(" ON ");
+        if (on >= 0) name = name.substring(0, on);
+        name = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        int index = name.lastIndexOf("_index_");
+        return index > 0 ? name.substring(0, index) : name;
+    }
+
+    private static String baseOf(String title) {
+        String base = SlugUtil.generateSlug(title);
+        return base.isEmpty() ? FALLBACK_SLUG : base;
+    }
+
+    /** -1 when the base is unused, so the first allocation is the bare base */
+    private AtomicLong highestSuffix(String base) {
+        Long highest = listingRepository.findHighestSlugSuffix(base);
+        return new AtomicLong(highest != null ? highest : -1);
+    }
+}
@@ -2,14 +2,17 @@ package com.marketplace.promotion.controller;
 
 import com.marketplace.common.constants.Constants;
 import com.marketplace.common.payload.ApiResponse;
+import com.marketplace.common.util.ConditionalGet;
 import com.marketplace.promotion.dto.PromotionBannerDTO;
 import com.marketplace.promotion.service.PromotionBannerService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,19 +24,25 @@ public class PromotionBannerController {
     @Autowired
     private PromotionBannerService bannerService;
 
+    @Value("${http.cache.banners-max-age-s:300}")
+    private long bannersMaxAgeSeconds;
+
     @GetMapping("/banners")
-    public ResponseEntity<ApiResponse<List<PromotionBannerDTO.BannerResponse>>> getActiveBanners() {
-        List<PromotionBannerDTO.BannerResponse> banners = bannerService.getActiveBanners();
-        return ResponseEntity.ok(
-                ApiResponse.success(Constants.STATUS_SUCCESS, "Active banners retrieved successfully", banners));
+    public ResponseEntity<ApiResponse<List<PromotionBannerDTO.BannerResponse>>> getActiveBanners(WebRequest request) {
+        return ConditionalGet.respond(request, bannerService.getActiveBannersValidator(null),
+                ConditionalGet.publicFor(bannersMaxAgeSeconds),
+                () -> ApiResponse.success(Constants.STATUS_SUCCESS, "Active banners retrieved successfully",
+                        bannerService.getActiveBanners()));
     }
 
     @GetMapping("/banners/position/{position}")
     public ResponseEntity<ApiResponse<List<PromotionBannerDTO.BannerResponse>>> getBannersByPosition(
-            @PathVariable String position) {
-        List<PromotionBannerDTO.BannerResponse> banners = bannerService.getActiveBannersByPosition(position);
-        return ResponseEntity.ok(
-                ApiResponse.success(Constants.STATUS_SUCCESS, "Banners retrieved successfully", banners));
+            @PathVariable String position,
+            WebRequest request) {
+        return ConditionalGet.respond(request, bannerService.getActiveBannersValidator(position),
+                ConditionalGet.publicFor(bannersMaxAgeSeconds),
+                () -> ApiResponse.success(Constants.STATUS_SUCCESS, "Banners retrieved successfully",
+                        bannerService.getActiveBannersByPosition(position)));
     }
 
     @GetMapping("/admin/banners")
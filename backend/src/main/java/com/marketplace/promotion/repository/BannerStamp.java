@@ -0,0 +1,15 @@
+package com.marketplace.promotion.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count, id sum and newest update of the banners active at a moment; a banner
+ * entering or leaving its date window changes the count or id sum. Used as an ETag version.
+ */
+public interface BannerStamp {
+    Long getCount();
+
+    Long getIdSum();
+
+    LocalDateTime getLastModified();
+}
@@ -27,4 +27,17 @@ public interface PromotionBannerRepository extends JpaRepository<PromotionBanner
             "AND (p.endDate IS NULL OR p.endDate >= :now) " +
             "ORDER BY p.displayOrder ASC")
     List<PromotionBanner> findActiveBannersByPosition(String position, LocalDateTime now);
+
+    @Query("SELECT COUNT(p) AS count, SUM(p.id) AS idSum, MAX(p.updatedAt) AS lastModified " +
+            "FROM PromotionBanner p WHERE p.isActive = true " +
+            "AND (p.startDate IS NULL OR p.startDate <= :now) " +
+            "AND (p.endDate IS NULL OR p.endDate >= :now)")
+    BannerStamp stampActiveBanners(LocalDateTime now);
+
+    @Query("SELECT COUNT(p) AS count, SUM(p.id) AS idSum, MAX(p.updatedAt) AS lastModified " +
+            "FROM PromotionBanner p WHERE p.isActive = true " +
+            "AND p.position = :position " +
+            "AND (p.startDate IS NULL OR p.startDate <= :now) " +
+            "AND (p.endDate IS NULL OR p.endDate >= :now)")
+    BannerStamp stampActiveBannersByPosition(String position, LocalDateTime now);
 }
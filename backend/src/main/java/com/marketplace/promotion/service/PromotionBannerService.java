@@ -1,8 +1,10 @@
 package com.marketplace.promotion.service;
 
 import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.util.ConditionalGet;
 import com.marketplace.promotion.dto.PromotionBannerDTO;
 import com.marketplace.promotion.entity.PromotionBanner;
+import com.marketplace.promotion.repository.BannerStamp;
 import com.marketplace.promotion.repository.PromotionBannerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -51,6 +53,17 @@ public class PromotionBannerService {
                 .collect(Collectors.toList());
     }
 
+    /** ETag of the currently active banners, from one aggregate row; no Last-Modified since the set is time dependent */
+    @Transactional(readOnly = true)
+    public ConditionalGet.Validator getActiveBannersValidator(String position) {
+        LocalDateTime now = LocalDateTime.now();
+        BannerStamp stamp = position == null
+                ? bannerRepository.stampActiveBanners(now)
+                : bannerRepository.stampActiveBannersByPosition(position, now);
+        return ConditionalGet.Validator.of("banners",
+                stamp.getCount(), stamp.getIdSum(), stamp.getLastModified());
+    }
+
     public List<PromotionBannerDTO.BannerResponse> getAllBanners() {
         return bannerRepository.findAll().stream()
                 .map(this::convertToResponse)
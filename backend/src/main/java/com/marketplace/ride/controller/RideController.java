@@ -2,7 +2,9 @@ package com.marketplace.ride.controller;
 
 import com.marketplace.common.constants.Constants;
 import com.marketplace.common.payload.ApiResponse;
+import com.marketplace.common.payload.CursorPage;
 import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.ride.service.FareSuggestionService;
 import com.marketplace.ride.service.RideService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,9 @@ public class RideController {
     @Autowired
     private RideService rideService;
 
+    @Autowired
+    private FareSuggestionService fareSuggestionService;
+
     // ─── PASSENGER ENDPOINTS ─────────────────────────────────
 
     /**
@@ -212,6 +217,44 @@ public class RideController {
                 ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
     }
 
+    /**
+     * GET /api/rides/my/passenger/cursor?cursor=&size=
+     * Passenger's ride history, keyset-paginated (pass back nextCursor for the next page).
+     */
+    @GetMapping("/my/passenger/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPage<RideDTO.RideListResponse>>> getMyRidesAsPassengerByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+
+        Long userId = Long.parseLong(authentication.getPrincipal().toString());
+        CursorPage<RideDTO.RideListResponse> response =
+                rideService.getMyRidesAsPassenger(userId, cursor, CursorPage.clampSize(size));
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+
+    /**
+     * GET /api/rides/my/driver/cursor?cursor=&size=
+     * Driver's ride history, keyset-paginated (pass back nextCursor for the next page).
+     */
+    @GetMapping("/my/driver/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPage<RideDTO.RideListResponse>>> getMyRidesAsDriverByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+
+        Long userId = Long.parseLong(authentication.getPrincipal().toString());
+        CursorPage<RideDTO.RideListResponse> response =
+                rideService.getMyRidesAsDriver(userId, cursor, CursorPage.clampSize(size));
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
+
     /**
      * GET /api/rides/nearby?lat=&lng=
      * Drivers browse nearby ride requests.
@@ -227,4 +270,25 @@ public class RideController {
         return ResponseEntity.ok(
                 ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
     }
+
+    /**
+     * GET /api/rides/fare-suggestion?pickupLat=&pickupLng=&dropoffLat=&dropoffLng=&distanceKm=&durationMin=
+     * Suggested offer band for a new ride from live supply and demand around the pickup.
+     */
+    @GetMapping("/fare-suggestion")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<RideDTO.FareSuggestionResponse>> suggestFare(
+            @RequestParam BigDecimal pickupLat,
+            @RequestParam BigDecimal pickupLng,
+            @RequestParam BigDecimal dropoffLat,
+            @RequestParam BigDecimal dropoffLng,
+            @RequestParam(required = false) BigDecimal distanceKm,
+            @RequestParam(required = false) Integer durationMin) {
+
+        RideDTO.FareSuggestionResponse response = fareSuggestionService.suggest(
+                pickupLat, pickupLng, dropoffLat, dropoffLng, distanceKm, durationMin);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, response));
+    }
 }
@@ -1,5 +1,6 @@
 package com.marketplace.ride.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -159,6 +160,42 @@ public class RideDTO {
         private LocalDateTime createdAt;
     }
 
+    /**
+     * Pushed to drivers on /user/queue/rides when an open ride near them is created
+     * or changes status, and to the passenger when the system cancels their ride.
+     * {@code ride} is omitted once the ride is no longer open.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RideDispatch {
+        private Long rideId;
+        private String status;
+        private String previousStatus;
+        private NearbyRideResponse ride;
+    }
+
+    /**
+     * Suggested offer for a trip: distance/time fare scaled by local demand over supply.
+     * Offers inside [minPrice, maxPrice] are expected to attract bids quickly.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FareSuggestionResponse {
+        private BigDecimal baseFare;
+        private BigDecimal surgeMultiplier;
+        private BigDecimal suggestedPrice;
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private BigDecimal distanceKm;
+        private Integer nearbyDrivers;
+        private Integer openRides;
+    }
+
     // ─── BID DTOs ────────────────────────────────────────────
 
     /** Driver places a bid on a ride */
@@ -203,6 +240,26 @@ public class RideDTO {
         private LocalDateTime createdAt;
     }
 
+    public static final String BID_EVENT_PLACED = "PLACED";
+    public static final String BID_EVENT_WITHDRAWN = "WITHDRAWN";
+    public static final String BID_EVENT_EXPIRED = "EXPIRED";
+
+    /**
+     * Pushed to the passenger on /user/queue/rides/{rideId}/bids. {@code bids} is the full
+     * pending list after the change, cheapest first; frames with a lower version are stale.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BidStreamEvent {
+        private String type;
+        private Long rideId;
+        private Long version;
+        private BidResponse bid;
+        private List<BidResponse> bids;
+    }
+
     // ─── STATUS UPDATE PAYLOADS ───────────────────────────────
 
     /** Driver marks themselves as arrived at pickup */
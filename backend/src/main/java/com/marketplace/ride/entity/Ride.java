@@ -94,10 +94,11 @@ public class Ride {
     @Column(name = "driver_earning", precision = 10, scale = 2)
     private BigDecimal driverEarning;
 
-    // Ride lifecycle status
+    // Ride lifecycle status (changed only through RideStateMachine)
+    @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 30)
     @Builder.Default
-    private String status = "SEARCHING";
+    private RideStatus status = RideStatus.SEARCHING;
     // SEARCHING → BIDDING → ACCEPTED → DRIVER_ARRIVING → IN_PROGRESS → COMPLETED | CANCELLED
 
     // Lifecycle timestamps
@@ -127,6 +128,10 @@ public class Ride {
     @Builder.Default
     private List<RideBid> bids = new ArrayList<>();
 
+    // Optimistic lock: concurrent transitions of the same ride fail instead of overwriting
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
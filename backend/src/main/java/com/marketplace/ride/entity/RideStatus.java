@@ -0,0 +1,26 @@
+package com.marketplace.ride.entity;
+
+/**
+ * Ride lifecycle. Stored by name in rides.status.
+ *
+ * SEARCHING → BIDDING → ACCEPTED → DRIVER_ARRIVING → IN_PROGRESS → COMPLETED,
+ * with CANCELLED reachable until the ride starts. Allowed moves live in RideStateMachine.
+ */
+public enum RideStatus {
+    SEARCHING,
+    BIDDING,
+    ACCEPTED,
+    DRIVER_ARRIVING,
+    IN_PROGRESS,
+    COMPLETED,
+    CANCELLED;
+
+    /** Still looking for a driver: visible to nearby drivers and open for bids */
+    public boolean isOpen() {
+        return this == SEARCHING || this == BIDDING;
+    }
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,39 @@
+package com.marketplace.ride.event;
+
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Published inside the transaction that changes a ride's status.
+ * Listeners that push to clients or touch in-memory state should run after commit.
+ *
+ * @param previousStatus null when the ride was just created
+ */
+public record RideStatusChangedEvent(Long rideId,
+                                     Long passengerId,
+                                     Long assignedDriverId,
+                                     RideStatus previousStatus,
+                                     RideStatus status,
+                                     BigDecimal pickupLat,
+                                     BigDecimal pickupLng,
+                                     String vehicleType) {
+
+    public static RideStatusChangedEvent of(Ride ride, RideStatus previousStatus) {
+        return of(ride, previousStatus, ride.getStatus());
+    }
+
+    /** For bulk updates, where the loaded entity still carries the previous status */
+    public static RideStatusChangedEvent of(Ride ride, RideStatus previousStatus, RideStatus status) {
+        return new RideStatusChangedEvent(
+                ride.getId(),
+                ride.getPassenger().getId(),
+                ride.getAssignedDriver() != null ? ride.getAssignedDriver().getId() : null,
+                previousStatus,
+                status,
+                ride.getPickupLat(),
+                ride.getPickupLng(),
+                ride.getVehicleType());
+    }
+}
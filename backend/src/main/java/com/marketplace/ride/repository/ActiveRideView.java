@@ -0,0 +1,16 @@
+package com.marketplace.ride.repository;
+
+import com.marketplace.ride.entity.RideStatus;
+
+/**
+ * A ride that is not yet completed or cancelled, with its passenger and assigned driver.
+ */
+public interface ActiveRideView {
+    Long getId();
+
+    Long getPassengerId();
+
+    Long getDriverId();
+
+    RideStatus getStatus();
+}
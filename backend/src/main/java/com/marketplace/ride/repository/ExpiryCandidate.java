@@ -0,0 +1,12 @@
+package com.marketplace.ride.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id and creation time of a ride or bid, enough to arm its expiry timer.
+ */
+public interface ExpiryCandidate {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+}
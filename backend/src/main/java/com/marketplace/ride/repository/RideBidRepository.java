@@ -1,9 +1,16 @@
 package com.marketplace.ride.repository;
 
 import com.marketplace.ride.entity.RideBid;
+import com.marketplace.ride.entity.RideStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +29,46 @@ public interface RideBidRepository extends JpaRepository<RideBid, Long> {
     // Check if driver already has a pending bid on a ride
     boolean existsByRideIdAndDriverIdAndStatus(Long rideId, Long driverId, String status);
 
-    // Count pending bids on a ride
-    long countByRideIdAndStatus(Long rideId, String status);
+    // Pending bids (with driver and user) on all rides in the given statuses
+    @Query("""
+            SELECT b FROM RideBid b JOIN FETCH b.driver d JOIN FETCH d.user
+            WHERE b.status = 'PENDING' AND b.ride.status IN :rideStatuses
+            """)
+    List<RideBid> findPendingWithDriverForRideStatuses(@Param("rideStatuses") Collection<RideStatus> rideStatuses);
+
+    // Reject every other pending bid on a ride in one statement (used when a bid is accepted)
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE RideBid b SET b.status = 'REJECTED', b.updatedAt = CURRENT_TIMESTAMP
+            WHERE b.ride.id = :rideId AND b.status = 'PENDING' AND b.id <> :acceptedBidId
+            """)
+    int rejectOtherPendingBids(@Param("rideId") Long rideId, @Param("acceptedBidId") Long acceptedBidId);
+
+    // ─── EXPIRY (set-based, see RideExpiryService) ───────────
+
+    // Lock the still-pending bids among the given ids, with what is needed to notify the passenger
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            SELECT b FROM RideBid b JOIN FETCH b.ride r JOIN FETCH r.passenger
+            WHERE b.id IN :bidIds AND b.status = 'PENDING'
+            """)
+    List<RideBid> lockPendingByIdIn(@Param("bidIds") Collection<Long> bidIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE RideBid b SET b.status = 'EXPIRED', b.updatedAt = CURRENT_TIMESTAMP
+            WHERE b.id IN :bidIds AND b.status = 'PENDING'
+            """)
+    int expirePendingBids(@Param("bidIds") Collection<Long> bidIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            UPDATE RideBid b SET b.status = 'EXPIRED', b.updatedAt = CURRENT_TIMESTAMP
+            WHERE b.ride.id IN :rideIds AND b.status = 'PENDING'
+            """)
+    int expirePendingBidsForRides(@Param("rideIds") Collection<Long> rideIds);
+
+    // Pending bids to arm for expiry at startup
+    @Query("SELECT b.id AS id, b.createdAt AS createdAt FROM RideBid b WHERE b.status = 'PENDING'")
+    List<ExpiryCandidate> findPendingExpiryCandidates();
 }
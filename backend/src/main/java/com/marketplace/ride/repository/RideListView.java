@@ -0,0 +1,35 @@
+package com.marketplace.ride.repository;
+
+import com.marketplace.ride.entity.RideStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Row of a ride history list, read in one statement (see RideRepository history queries).
+ */
+public interface RideListView {
+    Long getId();
+
+    RideStatus getStatus();
+
+    String getPickupAddress();
+
+    String getDropoffAddress();
+
+    BigDecimal getOfferedPrice();
+
+    BigDecimal getFinalPrice();
+
+    String getVehicleType();
+
+    Long getBidCount();
+
+    String getDriverFirstName();
+
+    String getDriverLastName();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getCompletedAt();
+}
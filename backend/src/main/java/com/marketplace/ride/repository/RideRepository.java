@@ -1,51 +1,112 @@
 package com.marketplace.ride.repository;
 
 import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
 
-    // Get all rides for a passenger
-    Page<Ride> findByPassengerId(Long passengerId, Pageable pageable);
-
-    // Get all rides assigned to a driver
-    Page<Ride> findByAssignedDriverId(Long driverId, Pageable pageable);
-
     // Get rides by status
-    Page<Ride> findByStatus(String status, Pageable pageable);
+    Page<Ride> findByStatus(RideStatus status, Pageable pageable);
+
+    // All rides in any of the given statuses (used to rebuild the open-ride book)
+    List<Ride> findByStatusIn(Collection<RideStatus> statuses);
 
     // Get passenger's rides by status
-    Page<Ride> findByPassengerIdAndStatus(Long passengerId, String status, Pageable pageable);
+    Page<Ride> findByPassengerIdAndStatus(Long passengerId, RideStatus status, Pageable pageable);
 
-    // Get active rides for a passenger (not completed/cancelled)
-    @Query("SELECT r FROM Ride r WHERE r.passenger.id = :passengerId AND r.status NOT IN ('COMPLETED', 'CANCELLED')")
-    List<Ride> findActiveRidesByPassenger(@Param("passengerId") Long passengerId);
+    // Every ride not yet completed/cancelled, with its parties (used to rebuild the active-ride registry)
+    @Query("""
+            SELECT r.id AS id, r.passenger.id AS passengerId, d.id AS driverId, r.status AS status
+            FROM Ride r LEFT JOIN r.assignedDriver d
+            WHERE r.status NOT IN (com.marketplace.ride.entity.RideStatus.COMPLETED, com.marketplace.ride.entity.RideStatus.CANCELLED)
+            """)
+    List<ActiveRideView> findAllActive();
 
-    // Get active ride for a driver (only one at a time)
-    @Query("SELECT r FROM Ride r WHERE r.assignedDriver.id = :driverId AND r.status IN ('ACCEPTED', 'DRIVER_ARRIVING', 'IN_PROGRESS')")
-    List<Ride> findActiveRidesByDriver(@Param("driverId") Long driverId);
+    // The ride with its row locked until commit (SELECT ... FOR UPDATE); reads the latest committed status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Ride r WHERE r.id = :rideId")
+    Optional<Ride> lockById(@Param("rideId") Long rideId);
 
-    // Find nearby rides that are searching/bidding (within a bounding box for performance)
+    // Compare-and-set of the ride status; returns 0 when the ride is no longer in one of the expected statuses
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Ride r SET r.status = :to WHERE r.id = :rideId AND r.status IN :from")
+    int compareAndSetStatus(@Param("rideId") Long rideId,
+                            @Param("from") Collection<RideStatus> from,
+                            @Param("to") RideStatus to);
+
+    // ─── EXPIRY (set-based, see RideExpiryService) ───────────
+
+    // Lock the rides among the given ids that are still in one of the given statuses
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Ride r JOIN FETCH r.passenger WHERE r.id IN :rideIds AND r.status IN :statuses")
+    List<Ride> lockByIdInAndStatusIn(@Param("rideIds") Collection<Long> rideIds,
+                                     @Param("statuses") Collection<RideStatus> statuses);
+
+    // Bulk compare-and-set to CANCELLED with the cancellation details; only RideStateMachine calls this
+    @Modifying(flushAutomatically = true)
     @Query("""
-            SELECT r FROM Ride r
-            WHERE r.status IN ('SEARCHING', 'BIDDING')
-            AND r.pickupLat BETWEEN :minLat AND :maxLat
-            AND r.pickupLng BETWEEN :minLng AND :maxLng
-            ORDER BY r.createdAt DESC
+            UPDATE Ride r SET r.status = com.marketplace.ride.entity.RideStatus.CANCELLED,
+                r.cancelledAt = :cancelledAt, r.cancelledBy = :cancelledBy, r.cancellationReason = :reason
+            WHERE r.id IN :rideIds AND r.status IN :from
             """)
-    List<Ride> findNearbySearchingRides(
-            @Param("minLat") BigDecimal minLat,
-            @Param("maxLat") BigDecimal maxLat,
-            @Param("minLng") BigDecimal minLng,
-            @Param("maxLng") BigDecimal maxLng
-    );
+    int cancelAll(@Param("rideIds") Collection<Long> rideIds,
+                  @Param("from") Collection<RideStatus> from,
+                  @Param("cancelledAt") LocalDateTime cancelledAt,
+                  @Param("cancelledBy") String cancelledBy,
+                  @Param("reason") String reason);
+
+    // Open rides to arm for expiry at startup
+    @Query("SELECT r.id AS id, r.createdAt AS createdAt FROM Ride r WHERE r.status IN :statuses")
+    List<ExpiryCandidate> findExpiryCandidates(@Param("statuses") Collection<RideStatus> statuses);
+
+    // ─── HISTORY LISTS (one statement per page, newest first) ───
+
+    String LIST_SELECT = """
+            SELECT r.id AS id, r.status AS status, r.pickupAddress AS pickupAddress,
+                   r.dropoffAddress AS dropoffAddress, r.offeredPrice AS offeredPrice,
+                   r.finalPrice AS finalPrice, r.vehicleType AS vehicleType,
+                   (SELECT COUNT(b) FROM RideBid b WHERE b.ride = r AND b.status = 'PENDING') AS bidCount,
+                   du.firstName AS driverFirstName, du.lastName AS driverLastName,
+                   r.createdAt AS createdAt, r.completedAt AS completedAt
+            FROM Ride r LEFT JOIN r.assignedDriver d LEFT JOIN d.user du
+            """;
+
+    String BEFORE_CURSOR = " AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))";
+
+    String NEWEST_FIRST = " ORDER BY r.createdAt DESC, r.id DESC";
+
+    @Query(value = LIST_SELECT + "WHERE r.passenger.id = :passengerId" + NEWEST_FIRST,
+            countQuery = "SELECT COUNT(r) FROM Ride r WHERE r.passenger.id = :passengerId")
+    Page<RideListView> findPassengerHistory(@Param("passengerId") Long passengerId, Pageable pageable);
+
+    @Query(LIST_SELECT + "WHERE r.passenger.id = :passengerId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideListView> findPassengerHistoryBefore(@Param("passengerId") Long passengerId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    @Query(value = LIST_SELECT + "WHERE d.user.id = :driverUserId" + NEWEST_FIRST,
+            countQuery = "SELECT COUNT(r) FROM Ride r WHERE r.assignedDriver.user.id = :driverUserId")
+    Page<RideListView> findDriverHistory(@Param("driverUserId") Long driverUserId, Pageable pageable);
+
+    @Query(LIST_SELECT + "WHERE d.user.id = :driverUserId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<RideListView> findDriverHistoryBefore(@Param("driverUserId") Long driverUserId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
 }
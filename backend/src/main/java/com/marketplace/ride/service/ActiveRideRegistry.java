@@ -0,0 +1,117 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.event.RideStatusChangedEvent;
+import com.marketplace.ride.repository.ActiveRideView;
+import com.marketplace.ride.repository.RideRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which passengers and drivers are currently in a ride, so the "one active ride"
+ * guards are map lookups instead of queries.
+ *
+ * A passenger is busy from ride creation until completion or cancellation; a driver
+ * from acceptance until then. Kept in step with every committed
+ * {@link RideStatusChangedEvent} and rebuilt from the rides table at startup.
+ * A passenger is also claimed while their ride is being created, so two concurrent
+ * creates cannot both pass the guard.
+ */
+@Component
+@Slf4j
+public class ActiveRideRegistry {
+
+    private static final Set<RideStatus> DRIVER_BUSY =
+            EnumSet.of(RideStatus.ACCEPTED, RideStatus.DRIVER_ARRIVING, RideStatus.IN_PROGRESS);
+
+    /** Finished rides are kept this long so a late, out-of-order event cannot revive them */
+    private static final long TOMBSTONE_MS = 60_000;
+
+    /** Stands in for the ride id while the passenger's ride is being created */
+    private static final Long RESERVED = -1L;
+
+    private record Tracked(Long passengerId, Long driverId, RideStatus status, long closedAtMillis) {
+    }
+
+    // Guarded by this
+    private final Map<Long, Tracked> rides = new HashMap<>();
+    private final ConcurrentHashMap<Long, Long> rideByPassenger = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> rideByDriver = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        rides.clear();
+        rideByPassenger.clear();
+        rideByDriver.clear();
+        for (ActiveRideView ride : rideRepository.findAllActive()) {
+            apply(ride.getId(), ride.getPassengerId(), ride.getDriverId(), ride.getStatus());
+        }
+        log.info("Active ride registry rebuilt with {} rides", rides.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onRideStatusChanged(RideStatusChangedEvent event) {
+        Tracked current = rides.get(event.rideId());
+        // Statuses only move forward (see RideStatus); anything else is a stale event
+        if (current != null && current.status().compareTo(event.status()) >= 0) return;
+        apply(event.rideId(), event.passengerId(), event.assignedDriverId(), event.status());
+    }
+
+    /**
+     * Claim the passenger for a ride about to be inserted. The committed creation event
+     * replaces the claim with the ride; the caller releases it if the insert rolls back.
+     *
+     * @return false if the passenger already has an active ride or one being created
+     */
+    public boolean reservePassenger(Long passengerId) {
+        return rideByPassenger.putIfAbsent(passengerId, RESERVED) == null;
+    }
+
+    public void releasePassenger(Long passengerId) {
+        rideByPassenger.remove(passengerId, RESERVED);
+    }
+
+    /** @param driverId driver profile id (not the user id) */
+    public boolean hasActiveRideAsDriver(Long driverId) {
+        return rideByDriver.containsKey(driverId);
+    }
+
+    @Scheduled(fixedDelay = TOMBSTONE_MS)
+    public synchronized void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - TOMBSTONE_MS;
+        rides.values().removeIf(r -> r.status().isTerminal() && r.closedAtMillis() <= cutoff);
+    }
+
+    private void apply(Long rideId, Long passengerId, Long driverId, RideStatus status) {
+        if (status.isTerminal()) {
+            rides.put(rideId, new Tracked(passengerId, driverId, status, System.currentTimeMillis()));
+            rideByPassenger.remove(passengerId, rideId);
+            if (driverId != null) rideByDriver.remove(driverId, rideId);
+            return;
+        }
+        rides.put(rideId, new Tracked(passengerId, driverId, status, 0L));
+        rideByPassenger.put(passengerId, rideId);
+        if (driverId != null && DRIVER_BUSY.contains(status)) {
+            rideByDriver.put(driverId, rideId);
+        }
+    }
+}
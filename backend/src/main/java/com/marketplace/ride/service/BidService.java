@@ -3,14 +3,17 @@ package com.marketplace.ride.service;
 import com.marketplace.common.exception.BadRequestException;
 import com.marketplace.common.exception.ResourceNotFoundException;
 import com.marketplace.common.exception.UnauthorizedException;
+import com.marketplace.common.util.TransactionUtils;
 import com.marketplace.rental.entity.Driver;
 import com.marketplace.rental.repository.DriverRepository;
 import com.marketplace.ride.dto.RideDTO;
 import com.marketplace.ride.entity.Ride;
 import com.marketplace.ride.entity.RideBid;
+import com.marketplace.ride.entity.RideStatus;
 import com.marketplace.ride.repository.RideBidRepository;
 import com.marketplace.ride.repository.RideRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,14 +36,31 @@ public class BidService {
     @Autowired
     private RideService rideService;
 
+    @Autowired
+    private OpenRideBook openRideBook;
+
+    @Autowired
+    private RideStateMachine rideStateMachine;
+
+    @Autowired
+    private RideExpiryScheduler rideExpiryScheduler;
+
+    @Autowired
+    private ActiveRideRegistry activeRideRegistry;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
     /**
      * Driver places a bid on a ride.
      */
     public RideDTO.BidResponse placeBid(Long rideId, RideDTO.CreateBidRequest request, Long driverId) {
-        Ride ride = rideRepository.findById(rideId)
+        // Hold the ride row until commit: an accept or cancel either finished before (and the
+        // status below says so) or waits for this bid and then sees it as PENDING
+        Ride ride = rideRepository.lockById(rideId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ride not found"));
 
-        if (!List.of("SEARCHING", "BIDDING").contains(ride.getStatus())) {
+        if (!ride.getStatus().isOpen()) {
             throw new BadRequestException("Cannot bid on a ride with status: " + ride.getStatus());
         }
 
@@ -52,8 +72,7 @@ public class BidService {
         }
 
         // Check if driver is already in an active ride
-        List<Ride> activeRides = rideRepository.findActiveRidesByDriver(driverId);
-        if (!activeRides.isEmpty()) {
+        if (activeRideRegistry.hasActiveRideAsDriver(driver.getId())) {
             throw new BadRequestException("You already have an active ride. Complete it before bidding.");
         }
 
@@ -73,13 +92,19 @@ public class BidService {
 
         bid = rideBidRepository.save(bid);
 
-        // Move ride from SEARCHING to BIDDING if it's the first bid
-        if ("SEARCHING".equals(ride.getStatus())) {
-            ride.setStatus("BIDDING");
-            rideRepository.save(ride);
+        RideDTO.BidResponse response = rideService.convertBidToResponse(bid);
+        Long passengerId = ride.getPassenger().getId();
+        TransactionUtils.afterCommit(() -> {
+            publishBids(passengerId, RideDTO.BID_EVENT_PLACED, response, openRideBook.bidPlaced(rideId, response));
+            rideExpiryScheduler.trackBid(response.getId(), response.getCreatedAt());
+        });
+
+        // Move ride from SEARCHING to BIDDING on the first bid; the row lock rules out a lost race
+        if (ride.getStatus() == RideStatus.SEARCHING) {
+            rideStateMachine.transition(ride, RideStatus.BIDDING);
         }
 
-        return rideService.convertBidToResponse(bid);
+        return response;
     }
 
     /**
@@ -98,15 +123,30 @@ public class BidService {
 
         bid.setStatus("WITHDRAWN");
         bid = rideBidRepository.save(bid);
-
-        return rideService.convertBidToResponse(bid);
+        RideDTO.BidResponse response = rideService.convertBidToResponse(bid);
+        Long rideId = bid.getRide().getId();
+        Long passengerId = bid.getRide().getPassenger().getId();
+        Long withdrawnBidId = bid.getId();
+        TransactionUtils.afterCommit(() -> publishBids(passengerId, RideDTO.BID_EVENT_WITHDRAWN, response,
+                openRideBook.bidRemoved(rideId, withdrawnBidId)));
+
+        return response;
     }
 
     /**
      * Get all bids on a ride (visible to the passenger of that ride).
+     * Open rides are answered from the open-ride book (pending bids only, cheapest first).
      */
     @Transactional(readOnly = true)
     public List<RideDTO.BidResponse> getBidsForRide(Long rideId, Long passengerId) {
+        OpenRideBook.OpenRide open = openRideBook.get(rideId);
+        if (open != null) {
+            if (!open.getPassengerId().equals(passengerId)) {
+                throw new UnauthorizedException("You are not the passenger of this ride");
+            }
+            return open.snapshot().bids();
+        }
+
         Ride ride = rideRepository.findById(rideId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ride not found"));
 
@@ -134,6 +174,26 @@ public class BidService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Push a bid change plus the ride's current pending bids, cheapest first, to the
+     * passenger on /user/queue/rides/{rideId}/bids. Runs after commit.
+     */
+    void publishBids(Long passengerId, String type, RideDTO.BidResponse bid, OpenRideBook.BidBoard board) {
+        if (board == null) return; // ride closed meanwhile; the status change tells the passenger
+        messagingTemplate.convertAndSendToUser(passengerId.toString(), bidQueue(board.rideId()),
+                RideDTO.BidStreamEvent.builder()
+                        .type(type)
+                        .rideId(board.rideId())
+                        .version(board.version())
+                        .bid(bid)
+                        .bids(board.bids())
+                        .build());
+    }
+
+    public static String bidQueue(Long rideId) {
+        return "/queue/rides/" + rideId + "/bids";
+    }
+
     private RideBid getBidOrThrow(Long bidId) {
         return rideBidRepository.findById(bidId)
                 .orElseThrow(() -> new ResourceNotFoundException("Bid not found with id: " + bidId));
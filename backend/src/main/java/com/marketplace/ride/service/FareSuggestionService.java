@@ -0,0 +1,103 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.common.util.GeoUtil;
+import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.tracking.service.DriverLocationIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Suggests an offer price for a new ride from live supply and demand.
+ *
+ * Supply is the number of online drivers and demand the number of open rides
+ * around the pickup. Both are read from the per-cell counters of the
+ * in-memory driver index and open-ride book, so a suggestion costs a few
+ * map lookups and no database access.
+ */
+@Service
+public class FareSuggestionService {
+
+    @Autowired
+    private DriverLocationIndex driverLocationIndex;
+
+    @Autowired
+    private OpenRideBook openRideBook;
+
+    @Value("${ride.fare.base:2.50}")
+    private BigDecimal baseFare;
+
+    @Value("${ride.fare.per-km:1.20}")
+    private BigDecimal perKm;
+
+    @Value("${ride.fare.per-min:0.25}")
+    private BigDecimal perMin;
+
+    @Value("${ride.fare.minimum:5.00}")
+    private BigDecimal minimumFare;
+
+    /** Straight-line distance is stretched by this factor when the client sends no route distance */
+    @Value("${ride.fare.detour-factor:1.3}")
+    private double detourFactor;
+
+    @Value("${ride.fare.surge.radius-km:3}")
+    private double surgeRadiusKm;
+
+    /** How strongly the demand/supply ratio above 1 raises the price */
+    @Value("${ride.fare.surge.sensitivity:0.5}")
+    private double surgeSensitivity;
+
+    @Value("${ride.fare.surge.max-multiplier:3.0}")
+    private double maxSurge;
+
+    /** Half-width of the suggested band, as a fraction of the suggested price */
+    @Value("${ride.fare.band-spread:0.10}")
+    private double bandSpread;
+
+    public RideDTO.FareSuggestionResponse suggest(BigDecimal pickupLat, BigDecimal pickupLng,
+                                                  BigDecimal dropoffLat, BigDecimal dropoffLng,
+                                                  BigDecimal distanceKm, Integer durationMin) {
+        double lat = pickupLat.doubleValue();
+        double lng = pickupLng.doubleValue();
+
+        BigDecimal distance = distanceKm;
+        if (distance == null) {
+            double straight = GeoUtil.haversineKm(lat, lng, dropoffLat.doubleValue(), dropoffLng.doubleValue());
+            distance = BigDecimal.valueOf(straight * detourFactor).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        BigDecimal fare = baseFare.add(perKm.multiply(distance));
+        if (durationMin != null) {
+            fare = fare.add(perMin.multiply(BigDecimal.valueOf(durationMin)));
+        }
+        fare = fare.max(minimumFare);
+
+        int drivers = driverLocationIndex.countNear(lat, lng, surgeRadiusKm);
+        int openRides = openRideBook.countNear(lat, lng, surgeRadiusKm);
+        BigDecimal multiplier = BigDecimal.valueOf(surgeMultiplier(openRides, drivers))
+                .setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal suggested = fare.multiply(multiplier);
+        BigDecimal spread = BigDecimal.valueOf(bandSpread);
+        return RideDTO.FareSuggestionResponse.builder()
+                .baseFare(fare.setScale(2, RoundingMode.HALF_UP))
+                .surgeMultiplier(multiplier)
+                .suggestedPrice(suggested.setScale(2, RoundingMode.HALF_UP))
+                .minPrice(suggested.multiply(BigDecimal.ONE.subtract(spread)).setScale(2, RoundingMode.HALF_UP))
+                .maxPrice(suggested.multiply(BigDecimal.ONE.add(spread)).setScale(2, RoundingMode.HALF_UP))
+                .distanceKm(distance)
+                .nearbyDrivers(drivers)
+                .openRides(openRides)
+                .build();
+    }
+
+    /** 1.0 while drivers keep up with demand, rising linearly with the excess ratio up to the cap */
+    private double surgeMultiplier(int demand, int supply) {
+        double ratio = (demand + 1.0) / (supply + 1.0);
+        if (ratio <= 1.0) return 1.0;
+        return Math.min(maxSurge, 1.0 + surgeSensitivity * (ratio - 1.0));
+    }
+}
@@ -0,0 +1,255 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.common.util.SpatialGridIndex;
+import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.repository.RideBidRepository;
+import com.marketplace.ride.repository.RideRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory book of open (SEARCHING / BIDDING) rides, indexed by pickup cell,
+ * with each ride's PENDING bids kept ordered by amount.
+ *
+ * RideService and BidService update it after each commit, so drivers polling
+ * for nearby work are answered without touching the database.
+ */
+@Component
+@Slf4j
+public class OpenRideBook {
+
+    /** Pending bids of a ride, cheapest first; {@code version} grows with every change */
+    public record BidBoard(Long rideId, long version, List<RideDTO.BidResponse> bids) {
+    }
+
+    private record BidKey(BigDecimal amount, Long bidId) {
+    }
+
+    private static final Comparator<BidKey> BID_ORDER = Comparator
+            .comparing(BidKey::amount, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(BidKey::bidId);
+
+    /** An open ride; summary fields are fixed, status and bids are live */
+    public static class OpenRide {
+        private final Long rideId;
+        private final Long passengerId;
+        private final String pickupAddress;
+        private final String dropoffAddress;
+        private final BigDecimal pickupLat;
+        private final BigDecimal pickupLng;
+        private final BigDecimal offeredPrice;
+        private final String vehicleType;
+        private final String notes;
+        private final BigDecimal estimatedDistanceKm;
+        private final Integer estimatedDurationMin;
+        private final LocalDateTime createdAt;
+        private volatile RideStatus status;
+        private volatile int pendingCount;
+        // Guarded by this
+        private final TreeMap<BidKey, RideDTO.BidResponse> bids = new TreeMap<>(BID_ORDER);
+        private final Map<Long, BidKey> bidKeys = new HashMap<>();
+        private long version;
+
+        OpenRide(Ride ride, List<RideDTO.BidResponse> pendingBids) {
+            this.rideId = ride.getId();
+            this.passengerId = ride.getPassenger().getId();
+            this.pickupAddress = ride.getPickupAddress();
+            this.dropoffAddress = ride.getDropoffAddress();
+            this.pickupLat = ride.getPickupLat();
+            this.pickupLng = ride.getPickupLng();
+            this.offeredPrice = ride.getOfferedPrice();
+            this.vehicleType = ride.getVehicleType();
+            this.notes = ride.getNotes();
+            this.estimatedDistanceKm = ride.getEstimatedDistanceKm();
+            this.estimatedDurationMin = ride.getEstimatedDurationMin();
+            this.createdAt = ride.getCreatedAt();
+            this.status = ride.getStatus();
+            pendingBids.forEach(this::putBid);
+        }
+
+        private void putBid(RideDTO.BidResponse bid) {
+            BidKey key = new BidKey(bid.getBidAmount(), bid.getId());
+            BidKey previous = bidKeys.put(bid.getId(), key);
+            if (previous != null) bids.remove(previous);
+            bids.put(key, bid);
+            pendingCount = bids.size();
+        }
+
+        synchronized BidBoard addBid(RideDTO.BidResponse bid) {
+            putBid(bid);
+            status = RideStatus.BIDDING;
+            return board(++version);
+        }
+
+        synchronized BidBoard removeBid(Long bidId) {
+            BidKey key = bidKeys.remove(bidId);
+            if (key != null) {
+                bids.remove(key);
+                pendingCount = bids.size();
+            }
+            return board(++version);
+        }
+
+        synchronized BidBoard snapshot() {
+            return board(version);
+        }
+
+        private BidBoard board(long atVersion) {
+            return new BidBoard(rideId, atVersion, new ArrayList<>(bids.values()));
+        }
+
+        public Long getRideId() {
+            return rideId;
+        }
+
+        public Long getPassengerId() {
+            return passengerId;
+        }
+
+        public BigDecimal getPickupLat() {
+            return pickupLat;
+        }
+
+        public BigDecimal getPickupLng() {
+            return pickupLng;
+        }
+
+        public RideStatus getStatus() {
+            return status;
+        }
+
+        public int getPendingBids() {
+            return pendingCount;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public RideDTO.NearbyRideResponse toNearbyResponse() {
+            return RideDTO.NearbyRideResponse.builder()
+                    .id(rideId)
+                    .status(status.name())
+                    .pickupAddress(pickupAddress)
+                    .pickupLat(pickupLat)
+                    .pickupLng(pickupLng)
+                    .dropoffAddress(dropoffAddress)
+                    .offeredPrice(offeredPrice)
+                    .vehicleType(vehicleType)
+                    .notes(notes)
+                    .estimatedDistanceKm(estimatedDistanceKm)
+                    .estimatedDurationMin(estimatedDurationMin)
+                    .bidCount((long) pendingCount)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+
+    private final SpatialGridIndex<OpenRide> grid;
+    private final RideRepository rideRepository;
+    private final RideBidRepository rideBidRepository;
+    private final RideService rideService;
+
+    public OpenRideBook(RideRepository rideRepository,
+                        RideBidRepository rideBidRepository,
+                        @Lazy RideService rideService,
+                        @Value("${ride.book.cell-size-deg:0.01}") double cellSizeDeg) {
+        this.rideRepository = rideRepository;
+        this.rideBidRepository = rideBidRepository;
+        this.rideService = rideService;
+        this.grid = new SpatialGridIndex<>(cellSizeDeg);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        grid.clear();
+        Set<RideStatus> openStatuses = EnumSet.of(RideStatus.SEARCHING, RideStatus.BIDDING);
+
+        Map<Long, List<RideDTO.BidResponse>> pendingBids = rideBidRepository
+                .findPendingWithDriverForRideStatuses(openStatuses).stream()
+                .map(rideService::convertBidToResponse)
+                .collect(Collectors.groupingBy(RideDTO.BidResponse::getRideId));
+        for (Ride ride : rideRepository.findByStatusIn(openStatuses)) {
+            open(ride, pendingBids.getOrDefault(ride.getId(), List.of()));
+        }
+        log.info("Open ride book rebuilt with {} rides", grid.size());
+    }
+
+    // ─── MUTATIONS (call after commit) ───────────────────────
+
+    public void open(Ride ride, List<RideDTO.BidResponse> pendingBids) {
+        OpenRide entry = new OpenRide(ride, pendingBids);
+        grid.put(ride.getId(), ride.getPickupLat().doubleValue(), ride.getPickupLng().doubleValue(), entry);
+    }
+
+    public void close(Long rideId) {
+        grid.remove(rideId);
+    }
+
+    public void setStatus(Long rideId, RideStatus status) {
+        OpenRide entry = get(rideId);
+        if (entry != null) {
+            entry.status = status;
+        }
+    }
+
+    /** @return the ride's bids after the change, or null if the ride is no longer open */
+    public BidBoard bidPlaced(Long rideId, RideDTO.BidResponse bid) {
+        OpenRide entry = get(rideId);
+        return entry != null ? entry.addBid(bid) : null;
+    }
+
+    /** @return the ride's bids after the change, or null if the ride is no longer open */
+    public BidBoard bidRemoved(Long rideId, Long bidId) {
+        OpenRide entry = get(rideId);
+        return entry != null ? entry.removeBid(bidId) : null;
+    }
+
+    // ─── QUERIES ─────────────────────────────────────────────
+
+    public OpenRide get(Long rideId) {
+        SpatialGridIndex.Entry<OpenRide> entry = grid.get(rideId);
+        return entry != null ? entry.value() : null;
+    }
+
+    /** Open rides with pickup within {@code radiusKm}, newest first */
+    public List<RideDTO.NearbyRideResponse> findNearby(double lat, double lng, double radiusKm) {
+        return grid.within(lat, lng, radiusKm).stream()
+                .map(SpatialGridIndex.Hit::value)
+                .sorted(Comparator.comparing(OpenRide::getCreatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(OpenRide::toNearbyResponse)
+                .collect(Collectors.toList());
+    }
+
+    /** Approximate open-ride count around a point, from per-cell counters */
+    public int countNear(double lat, double lng, double radiusKm) {
+        return grid.countInCells(lat, lng, radiusKm);
+    }
+
+    public int size() {
+        return grid.size();
+    }
+}
@@ -0,0 +1,150 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.common.util.SpatialGridIndex;
+import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.ride.event.RideStatusChangedEvent;
+import com.marketplace.tracking.service.DriverLocationIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes open rides to online drivers near the pickup on /user/queue/rides,
+ * so idle drivers no longer need to poll GET /api/rides/nearby.
+ *
+ * Drivers are found in the in-memory location index. Fan-out runs after commit
+ * on single-threaded stripes chosen by ride id, so the dispatches of one ride run
+ * one at a time and in order (a close never races an open of the same ride and
+ * leaves no recipient set behind). When a stripe's queue is full the push is dropped and
+ * drivers still see the ride through the nearby endpoint. Drivers told about a
+ * ride are remembered, so they also hear when it gets bids, is taken or is cancelled.
+ */
+@Service
+@Slf4j
+public class RideDispatchService {
+
+    public static final String DRIVER_RIDES_QUEUE = "/queue/rides";
+
+    /** Principal names (user ids) of drivers notified per open ride */
+    private final ConcurrentHashMap<Long, Set<String>> notifiedDrivers = new ConcurrentHashMap<>();
+
+    private ThreadPoolTaskExecutor[] stripes;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private DriverLocationIndex driverLocationIndex;
+
+    @Autowired
+    private OpenRideBook openRideBook;
+
+    @Value("${ride.dispatch.radius-km:5}")
+    private double radiusKm;
+
+    /** Nearest drivers notified of a new ride; caps fan-out in dense areas */
+    @Value("${ride.dispatch.max-drivers:200}")
+    private int maxDrivers;
+
+    /** Single-threaded dispatch lanes; a ride always uses the same one */
+    @Value("${ride.dispatch.stripes:4}")
+    private int stripeCount;
+
+    /** Pending pushes per stripe */
+    @Value("${ride.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @PostConstruct
+    public void start() {
+        stripes = new ThreadPoolTaskExecutor[Math.max(stripeCount, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadNamePrefix("ride-dispatch-" + i + "-");
+            executor.setCorePoolSize(1);
+            executor.setMaxPoolSize(1);
+            executor.setQueueCapacity(queueCapacity);
+            executor.setRejectedExecutionHandler((task, pool) ->
+                    log.warn("Ride dispatch queue full ({} pending), dropping push", pool.getQueue().size()));
+            executor.initialize();
+            stripes[i] = executor;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ThreadPoolTaskExecutor executor : stripes) {
+            executor.shutdown();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRideStatusChanged(RideStatusChangedEvent event) {
+        // Later lifecycle steps (arrived, started, completed) only concern the ride's own parties
+        if (!event.status().isOpen() && (event.previousStatus() == null || !event.previousStatus().isOpen())) return;
+        long queuedAt = System.nanoTime();
+        stripes[Math.floorMod(event.rideId().hashCode(), stripes.length)].execute(() -> dispatch(event, queuedAt));
+    }
+
+    private void dispatch(RideStatusChangedEvent event, long queuedAt) {
+        Set<String> recipients;
+        RideDTO.RideDispatch.RideDispatchBuilder message = RideDTO.RideDispatch.builder()
+                .rideId(event.rideId())
+                .status(event.status().name())
+                .previousStatus(event.previousStatus() != null ? event.previousStatus().name() : null);
+
+        if (event.status().isOpen()) {
+            OpenRideBook.OpenRide ride = openRideBook.get(event.rideId());
+            if (ride == null) return; // closed again before we got to it
+            message.ride(ride.toNearbyResponse());
+            recipients = notifiedDrivers.computeIfAbsent(event.rideId(), id -> ConcurrentHashMap.newKeySet());
+            addNearbyDrivers(event, recipients);
+        } else {
+            recipients = notifiedDrivers.remove(event.rideId());
+            if (recipients == null) {
+                // Notified before a restart: tell whoever is around now
+                recipients = ConcurrentHashMap.newKeySet();
+                addNearbyDrivers(event, recipients);
+            }
+        }
+
+        RideDTO.RideDispatch payload = message.build();
+        for (String userId : recipients) {
+            messagingTemplate.convertAndSendToUser(userId, DRIVER_RIDES_QUEUE, payload);
+        }
+        log.debug("Dispatched ride {} ({}) to {} drivers in {} ms", event.rideId(), event.status(),
+                recipients.size(), (System.nanoTime() - queuedAt) / 1_000_000);
+    }
+
+    private void addNearbyDrivers(RideStatusChangedEvent event, Set<String> recipients) {
+        if (event.pickupLat() == null || event.pickupLng() == null) return;
+        int added = 0;
+        for (SpatialGridIndex.Hit<DriverLocationIndex.TrackedDriver> hit : driverLocationIndex.findNearby(
+                event.pickupLat().doubleValue(), event.pickupLng().doubleValue(), radiusKm)) {
+            if (added >= maxDrivers) break;
+            DriverLocationIndex.TrackedDriver driver = hit.value();
+            if (driver.userId() == null || driver.userId().equals(event.passengerId())) continue;
+            if (!canServe(driver.vehicleTypes(), event.vehicleType())) continue;
+            recipients.add(driver.userId().toString());
+            added++;
+        }
+    }
+
+    private static boolean canServe(String driverVehicleTypes, String rideVehicleType) {
+        if (rideVehicleType == null || "ANY".equalsIgnoreCase(rideVehicleType)) return true;
+        if (driverVehicleTypes == null) return false;
+        for (String type : driverVehicleTypes.split(",")) {
+            if (type.trim().equalsIgnoreCase(rideVehicleType)) return true;
+        }
+        return false;
+    }
+}
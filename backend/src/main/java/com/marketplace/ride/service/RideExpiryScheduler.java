@@ -0,0 +1,125 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.common.util.TimerWheel;
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.event.RideStatusChangedEvent;
+import com.marketplace.ride.repository.ExpiryCandidate;
+import com.marketplace.ride.repository.RideBidRepository;
+import com.marketplace.ride.repository.RideRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Expires PENDING bids after {@code ride.expiry.bid-ttl-ms} and cancels rides still
+ * unmatched (SEARCHING / BIDDING) after {@code ride.expiry.ride-ttl-ms}.
+ *
+ * Bids and rides are armed on timer wheels when created (and from the database at
+ * startup). Each tick takes the due ids off the wheels and expires them in batches
+ * through {@link RideExpiryService}. Timers are not disarmed when a bid or ride
+ * settles earlier; the expiry re-checks the status and skips it.
+ */
+@Component
+@Slf4j
+public class RideExpiryScheduler {
+
+    private final TimerWheel bidTimers;
+    private final TimerWheel rideTimers;
+
+    @Autowired
+    private RideExpiryService rideExpiryService;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private RideBidRepository rideBidRepository;
+
+    @Value("${ride.expiry.bid-ttl-ms:300000}")
+    private long bidTtlMs;
+
+    @Value("${ride.expiry.ride-ttl-ms:900000}")
+    private long rideTtlMs;
+
+    @Value("${ride.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ride.expiry.retry-delay-ms:10000}")
+    private long retryDelayMs;
+
+    public RideExpiryScheduler(@Value("${ride.expiry.tick-ms:1000}") long tickMs,
+                               @Value("${ride.expiry.wheel-slots:512}") int wheelSlots) {
+        this.bidTimers = new TimerWheel(tickMs, wheelSlots);
+        this.rideTimers = new TimerWheel(tickMs, wheelSlots);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(100)
+    @Transactional(readOnly = true)
+    public void armFromDatabase() {
+        List<ExpiryCandidate> bids = rideBidRepository.findPendingExpiryCandidates();
+        bids.forEach(b -> trackBid(b.getId(), b.getCreatedAt()));
+        List<ExpiryCandidate> rides = rideRepository.findExpiryCandidates(
+                EnumSet.of(RideStatus.SEARCHING, RideStatus.BIDDING));
+        rides.forEach(r -> rideTimers.schedule(r.getId(), toMillis(r.getCreatedAt()) + rideTtlMs));
+        log.info("Armed expiry for {} pending bids and {} open rides", bids.size(), rides.size());
+    }
+
+    /** Arm a newly placed bid (call after commit) */
+    public void trackBid(Long bidId, LocalDateTime placedAt) {
+        bidTimers.schedule(bidId, toMillis(placedAt) + bidTtlMs);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRideStatusChanged(RideStatusChangedEvent event) {
+        if (event.previousStatus() == null) {
+            rideTimers.schedule(event.rideId(), System.currentTimeMillis() + rideTtlMs);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ride.expiry.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        // Rides first: their pending bids expire with them
+        int rides = expireInBatches(rideTimers, now, rideExpiryService::expireRides);
+        int bids = expireInBatches(bidTimers, now, rideExpiryService::expireBids);
+        if (rides > 0 || bids > 0) {
+            log.info("Expired {} unmatched rides and {} pending bids", rides, bids);
+        }
+    }
+
+    private int expireInBatches(TimerWheel timers, long now, Function<List<Long>, Integer> expire) {
+        List<Long> due = timers.advance(now);
+        int total = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                total += expire.apply(batch);
+            } catch (RuntimeException ex) {
+                log.error("Failed to expire batch of {} ids, retrying in {} ms", batch.size(), retryDelayMs, ex);
+                due.subList(from, due.size()).forEach(id -> timers.schedule(id, now + retryDelayMs));
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        if (time == null) return System.currentTimeMillis(); // unknown creation time: count from now
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
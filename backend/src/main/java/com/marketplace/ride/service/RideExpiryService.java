@@ -0,0 +1,127 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.common.util.TransactionUtils;
+import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideBid;
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.repository.RideBidRepository;
+import com.marketplace.ride.repository.RideRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Expires batches of due bids and rides, one transaction and a fixed number of
+ * statements per batch. Rows are locked and re-checked first, so a bid accepted or
+ * a ride matched since its timer was armed is left alone.
+ */
+@Service
+@Transactional
+public class RideExpiryService {
+
+    public static final String CANCELLED_BY_SYSTEM = "SYSTEM";
+    public static final String EXPIRY_REASON = "No driver was matched in time";
+
+    private static final Set<RideStatus> OPEN = EnumSet.of(RideStatus.SEARCHING, RideStatus.BIDDING);
+
+    @Autowired
+    private RideBidRepository rideBidRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private RideStateMachine rideStateMachine;
+
+    @Autowired
+    private RideService rideService;
+
+    // Lazy: BidService arms bid timers through RideExpiryScheduler, which calls back into this service
+    @Lazy
+    @Autowired
+    private BidService bidService;
+
+    @Autowired
+    private OpenRideBook openRideBook;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * PENDING → EXPIRED for the given bids; the passenger gets the updated bid list.
+     *
+     * @return number of bids expired
+     */
+    public int expireBids(Collection<Long> bidIds) {
+        List<RideBid> bids = rideBidRepository.lockPendingByIdIn(bidIds);
+        if (bids.isEmpty()) return 0;
+
+        int expired = rideBidRepository.expirePendingBids(
+                bids.stream().map(RideBid::getId).collect(Collectors.toList()));
+
+        List<Runnable> notifications = new ArrayList<>(bids.size());
+        for (RideBid bid : bids) {
+            RideDTO.BidResponse response = rideService.convertBidToResponse(bid);
+            response.setStatus("EXPIRED");
+            Long rideId = bid.getRide().getId();
+            Long passengerId = bid.getRide().getPassenger().getId();
+            Long bidId = bid.getId();
+            notifications.add(() -> bidService.publishBids(passengerId, RideDTO.BID_EVENT_EXPIRED, response,
+                    openRideBook.bidRemoved(rideId, bidId)));
+        }
+        TransactionUtils.afterCommit(() -> notifications.forEach(Runnable::run));
+        return expired;
+    }
+
+    /**
+     * Cancel the given rides (cancelledBy = SYSTEM) if they are still unmatched, and
+     * expire their pending bids. Nearby drivers are told through the ride status event;
+     * the passenger gets a status push on /user/queue/rides/{rideId}/status.
+     *
+     * @return number of rides cancelled
+     */
+    public int expireRides(Collection<Long> rideIds) {
+        List<Ride> rides = rideRepository.lockByIdInAndStatusIn(rideIds, OPEN);
+        if (rides.isEmpty()) return 0;
+
+        List<Long> ids = rides.stream().map(Ride::getId).collect(Collectors.toList());
+        rideBidRepository.expirePendingBidsForRides(ids);
+        int cancelled = rideStateMachine.cancelAll(rides, CANCELLED_BY_SYSTEM, EXPIRY_REASON, LocalDateTime.now());
+
+        List<RideDTO.RideDispatch> messages = new ArrayList<>(rides.size());
+        List<Long> passengerIds = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            messages.add(RideDTO.RideDispatch.builder()
+                    .rideId(ride.getId())
+                    .status(RideStatus.CANCELLED.name())
+                    .previousStatus(ride.getStatus().name())
+                    .build());
+            passengerIds.add(ride.getPassenger().getId());
+        }
+        TransactionUtils.afterCommit(() -> {
+            for (int i = 0; i < messages.size(); i++) {
+                Long rideId = messages.get(i).getRideId();
+                openRideBook.close(rideId);
+                messagingTemplate.convertAndSendToUser(passengerIds.get(i).toString(),
+                        passengerStatusQueue(rideId), messages.get(i));
+            }
+        });
+        return cancelled;
+    }
+
+    /** Passenger's per-ride status destination; sits beside {@link BidService#bidQueue} */
+    public static String passengerStatusQueue(Long rideId) {
+        return "/queue/rides/" + rideId + "/status";
+    }
+}
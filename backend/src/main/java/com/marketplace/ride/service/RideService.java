@@ -2,23 +2,36 @@ package com.marketplace.ride.service;
 
 import com.marketplace.auth.entity.User;
 import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.commission.dto.CommissionDTO;
+import com.marketplace.commission.entity.DriverTier;
+import com.marketplace.commission.service.CommissionService;
 import com.marketplace.common.exception.BadRequestException;
 import com.marketplace.common.exception.ResourceNotFoundException;
 import com.marketplace.common.exception.UnauthorizedException;
+import com.marketplace.common.payload.CursorPage;
+import com.marketplace.common.util.CursorCodec;
+import com.marketplace.common.util.TransactionUtils;
+import com.marketplace.earnings.service.EarningsService;
 import com.marketplace.rental.entity.Driver;
 import com.marketplace.ride.dto.RideDTO;
 import com.marketplace.ride.entity.Ride;
 import com.marketplace.ride.entity.RideBid;
+import com.marketplace.ride.entity.RideStatus;
 import com.marketplace.ride.repository.RideBidRepository;
+import com.marketplace.ride.repository.RideListView;
 import com.marketplace.ride.repository.RideRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,10 +39,6 @@ import java.util.stream.Collectors;
 @Transactional
 public class RideService {
 
-    // ≈ 1 degree of latitude/longitude ≈ 111 km, so 5 km radius ≈ 0.045 degrees
-    private static final BigDecimal NEARBY_RADIUS_DEGREES = new BigDecimal("0.045");
-    private static final BigDecimal DEFAULT_COMMISSION_RATE = new BigDecimal("15.00"); // 15%
-
     @Autowired
     private RideRepository rideRepository;
 
@@ -39,6 +48,25 @@ public class RideService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OpenRideBook openRideBook;
+
+    @Autowired
+    private RideStateMachine rideStateMachine;
+
+    @Autowired
+    private ActiveRideRegistry activeRideRegistry;
+
+    @Autowired
+    private EarningsService earningsService;
+
+    @Autowired
+    private CommissionService commissionService;
+
+    /** Pickup radius for drivers browsing nearby rides */
+    @Value("${ride.nearby.radius-km:5}")
+    private double nearbyRadiusKm;
+
     // ─── PASSENGER ACTIONS ───────────────────────────────────
 
     /**
@@ -48,11 +76,11 @@ public class RideService {
         User passenger = userRepository.findById(passengerId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        // Check if passenger already has an active ride
-        List<Ride> activeRides = rideRepository.findActiveRidesByPassenger(passengerId);
-        if (!activeRides.isEmpty()) {
+        // Claim the passenger before the insert, so a concurrent create fails here
+        if (!activeRideRegistry.reservePassenger(passengerId)) {
             throw new BadRequestException("You already have an active ride. Complete or cancel it first.");
         }
+        TransactionUtils.afterRollback(() -> activeRideRegistry.releasePassenger(passengerId));
 
         Ride ride = Ride.builder()
                 .passenger(passenger)
@@ -67,10 +95,13 @@ public class RideService {
                 .notes(request.getNotes())
                 .estimatedDistanceKm(request.getEstimatedDistanceKm())
                 .estimatedDurationMin(request.getEstimatedDurationMin())
-                .status("SEARCHING")
+                .status(RideStatus.SEARCHING)
                 .build();
 
         ride = rideRepository.save(ride);
+        Ride created = ride;
+        TransactionUtils.afterCommit(() -> openRideBook.open(created, List.of()));
+        rideStateMachine.created(ride);
         return convertToResponse(ride);
     }
 
@@ -85,10 +116,6 @@ public class RideService {
             throw new UnauthorizedException("You are not the passenger of this ride");
         }
 
-        if (!List.of("SEARCHING", "BIDDING").contains(ride.getStatus())) {
-            throw new BadRequestException("Ride is not in a biddable state. Current status: " + ride.getStatus());
-        }
-
         RideBid bid = rideBidRepository.findById(bidId)
                 .orElseThrow(() -> new ResourceNotFoundException("Bid not found"));
 
@@ -100,28 +127,22 @@ public class RideService {
             throw new BadRequestException("This bid is no longer available. Status: " + bid.getStatus());
         }
 
-        // Accept the chosen bid
-        bid.setStatus("ACCEPTED");
-        rideBidRepository.save(bid);
-
-        // Reject all other pending bids on this ride
-        List<RideBid> otherBids = rideBidRepository.findByRideIdOrderByBidAmountAsc(rideId);
-        otherBids.stream()
-                .filter(b -> !b.getId().equals(bidId) && "PENDING".equals(b.getStatus()))
-                .forEach(b -> {
-                    b.setStatus("REJECTED");
-                    rideBidRepository.save(b);
-                });
-
-        // Update ride
+        // Claim the ride first: a concurrent accept or cancel loses here, before any bid row is touched
+        rideStateMachine.transition(ride, RideStatus.ACCEPTED);
         ride.setAcceptedBid(bid);
         ride.setAssignedDriver(bid.getDriver());
         ride.setFinalPrice(bid.getBidAmount());
-        ride.setStatus("ACCEPTED");
         ride.setAcceptedAt(LocalDateTime.now());
         ride = rideRepository.save(ride);
 
-        return convertToResponse(ride);
+        // Accept the chosen bid, reject all other pending bids in one statement
+        bid.setStatus("ACCEPTED");
+        rideBidRepository.save(bid);
+        rideBidRepository.rejectOtherPendingBids(rideId, bidId);
+        TransactionUtils.afterCommit(() -> openRideBook.close(rideId));
+
+        // Other bids were rejected in bulk; only the accepted one is relevant to the response
+        return convertToResponse(ride, List.of(bid));
     }
 
     /**
@@ -134,15 +155,18 @@ public class RideService {
             throw new UnauthorizedException("You are not the passenger of this ride");
         }
 
-        if (List.of("IN_PROGRESS", "COMPLETED", "CANCELLED").contains(ride.getStatus())) {
+        if (!RideStateMachine.canTransition(ride.getStatus(), RideStatus.CANCELLED)) {
             throw new BadRequestException("Cannot cancel ride in current state: " + ride.getStatus());
         }
 
-        ride.setStatus("CANCELLED");
+        rideStateMachine.transition(ride, RideStatus.CANCELLED);
         ride.setCancelledAt(LocalDateTime.now());
         ride.setCancellationReason(reason);
         ride.setCancelledBy("PASSENGER");
         ride = rideRepository.save(ride);
+        // Bids placed before the cancel took the row are still PENDING; close them with the ride
+        rideBidRepository.expirePendingBidsForRides(List.of(rideId));
+        TransactionUtils.afterCommit(() -> openRideBook.close(rideId));
 
         return convertToResponse(ride);
     }
@@ -156,11 +180,11 @@ public class RideService {
         Ride ride = getRideOrThrow(rideId);
         validateDriverAssigned(ride, driverId);
 
-        if (!"ACCEPTED".equals(ride.getStatus())) {
+        if (ride.getStatus() != RideStatus.ACCEPTED) {
             throw new BadRequestException("Can only mark arrived when ride is ACCEPTED. Current: " + ride.getStatus());
         }
 
-        ride.setStatus("DRIVER_ARRIVING");
+        rideStateMachine.transition(ride, RideStatus.DRIVER_ARRIVING);
         ride.setDriverArrivedAt(LocalDateTime.now());
         ride = rideRepository.save(ride);
 
@@ -174,11 +198,11 @@ public class RideService {
         Ride ride = getRideOrThrow(rideId);
         validateDriverAssigned(ride, driverId);
 
-        if (!List.of("ACCEPTED", "DRIVER_ARRIVING").contains(ride.getStatus())) {
+        if (!RideStateMachine.canTransition(ride.getStatus(), RideStatus.IN_PROGRESS)) {
             throw new BadRequestException("Cannot start ride from current state: " + ride.getStatus());
         }
 
-        ride.setStatus("IN_PROGRESS");
+        rideStateMachine.transition(ride, RideStatus.IN_PROGRESS);
         ride.setStartedAt(LocalDateTime.now());
         ride = rideRepository.save(ride);
 
@@ -192,25 +216,25 @@ public class RideService {
         Ride ride = getRideOrThrow(rideId);
         validateDriverAssigned(ride, driverId);
 
-        if (!"IN_PROGRESS".equals(ride.getStatus())) {
+        if (ride.getStatus() != RideStatus.IN_PROGRESS) {
             throw new BadRequestException("Can only complete a ride that is IN_PROGRESS. Current: " + ride.getStatus());
         }
 
-        // Apply default commission (Phase 3+ will use CommissionService)
-        BigDecimal commissionRate = DEFAULT_COMMISSION_RATE;
-        BigDecimal finalPrice = ride.getFinalPrice();
-        BigDecimal commissionAmount = finalPrice.multiply(commissionRate)
-                .divide(BigDecimal.valueOf(100), 2, java.math.RoundingMode.HALF_UP);
-        BigDecimal driverEarning = finalPrice.subtract(commissionAmount);
-
-        ride.setCommissionRate(commissionRate);
-        ride.setCommissionAmount(commissionAmount);
-        ride.setDriverEarning(driverEarning);
-        ride.setStatus("COMPLETED");
-        ride.setCompletedAt(LocalDateTime.now());
+        // Commission from the in-memory rule set (vehicle type, driver tier, hour, pickup zone)
+        Driver driver = ride.getAssignedDriver();
+        LocalDateTime completedAt = LocalDateTime.now();
+        CommissionDTO.QuoteResponse commission = commissionService.quote(ride.getVehicleType(),
+                DriverTier.of(driver.getRating(), driver.getTotalTrips()),
+                ride.getPickupLat(), ride.getPickupLng(), ride.getFinalPrice(), completedAt);
+
+        ride.setCommissionRate(commission.getRatePercent());
+        ride.setCommissionAmount(commission.getCommissionAmount());
+        ride.setDriverEarning(commission.getDriverEarning());
+        rideStateMachine.transition(ride, RideStatus.COMPLETED);
+        ride.setCompletedAt(completedAt);
         ride = rideRepository.save(ride);
 
-        // TODO Phase 4: Credit driver wallet with driverEarning
+        earningsService.recordRideEarning(ride);
 
         return convertToResponse(ride);
     }
@@ -222,15 +246,18 @@ public class RideService {
         Ride ride = getRideOrThrow(rideId);
         validateDriverAssigned(ride, driverId);
 
-        if (List.of("IN_PROGRESS", "COMPLETED", "CANCELLED").contains(ride.getStatus())) {
+        if (!RideStateMachine.canTransition(ride.getStatus(), RideStatus.CANCELLED)) {
             throw new BadRequestException("Cannot cancel ride in current state: " + ride.getStatus());
         }
 
-        ride.setStatus("CANCELLED");
+        rideStateMachine.transition(ride, RideStatus.CANCELLED);
         ride.setCancelledAt(LocalDateTime.now());
         ride.setCancellationReason(reason);
         ride.setCancelledBy("DRIVER");
         ride = rideRepository.save(ride);
+        // Bids placed before the cancel took the row are still PENDING; close them with the ride
+        rideBidRepository.expirePendingBidsForRides(List.of(rideId));
+        TransactionUtils.afterCommit(() -> openRideBook.close(rideId));
 
         return convertToResponse(ride);
     }
@@ -243,29 +270,44 @@ public class RideService {
         return convertToResponse(ride);
     }
 
+    /** Newest first; the query fixes the order, so any sort on {@code pageable} is ignored */
+    @Transactional(readOnly = true)
     public Page<RideDTO.RideListResponse> getMyRidesAsPassenger(Long passengerId, Pageable pageable) {
-        return rideRepository.findByPassengerId(passengerId, pageable)
+        return rideRepository.findPassengerHistory(passengerId, unsorted(pageable))
                 .map(this::convertToListResponse);
     }
 
-    public Page<RideDTO.RideListResponse> getMyRidesAsDriver(Long driverId, Pageable pageable) {
-        return rideRepository.findByAssignedDriverId(driverId, pageable)
+    @Transactional(readOnly = true)
+    public Page<RideDTO.RideListResponse> getMyRidesAsDriver(Long driverUserId, Pageable pageable) {
+        return rideRepository.findDriverHistory(driverUserId, unsorted(pageable))
                 .map(this::convertToListResponse);
     }
 
     /**
-     * Returns rides within ~5 km radius that are in SEARCHING or BIDDING status.
+     * Keyset-paginated passenger history: each page seeks past the (createdAt, id) in
+     * {@code cursor}, so deep pages cost the same as the first. No cursor = first page.
      */
+    @Transactional(readOnly = true)
+    public CursorPage<RideDTO.RideListResponse> getMyRidesAsPassenger(Long passengerId, String cursor, int size) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return toCursorPage(rideRepository.findPassengerHistoryBefore(
+                passengerId, after.createdAt(), after.id(), PageRequest.of(0, size + 1)), size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<RideDTO.RideListResponse> getMyRidesAsDriver(Long driverUserId, String cursor, int size) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return toCursorPage(rideRepository.findDriverHistoryBefore(
+                driverUserId, after.createdAt(), after.id(), PageRequest.of(0, size + 1)), size);
+    }
+
+    /**
+     * Returns SEARCHING/BIDDING rides with pickup within the configured radius,
+     * newest first, with their live pending-bid counts. Served from the open-ride book.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<RideDTO.NearbyRideResponse> getNearbyRides(BigDecimal lat, BigDecimal lng) {
-        BigDecimal minLat = lat.subtract(NEARBY_RADIUS_DEGREES);
-        BigDecimal maxLat = lat.add(NEARBY_RADIUS_DEGREES);
-        BigDecimal minLng = lng.subtract(NEARBY_RADIUS_DEGREES);
-        BigDecimal maxLng = lng.add(NEARBY_RADIUS_DEGREES);
-
-        return rideRepository.findNearbySearchingRides(minLat, maxLat, minLng, maxLng)
-                .stream()
-                .map(this::convertToNearbyResponse)
-                .collect(Collectors.toList());
+        return openRideBook.findNearby(lat.doubleValue(), lng.doubleValue(), nearbyRadiusKm);
     }
 
     // ─── HELPERS ─────────────────────────────────────────────
@@ -275,8 +317,40 @@ public class RideService {
                 .orElseThrow(() -> new ResourceNotFoundException("Ride not found with id: " + rideId));
     }
 
+    /** Position in a newest-first history list; the first page starts after the end of time */
+    private record HistoryCursor(LocalDateTime createdAt, Long id) {
+        static final HistoryCursor START = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+        static HistoryCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) return START;
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                return new HistoryCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+
+    private CursorPage<RideDTO.RideListResponse> toCursorPage(List<RideListView> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<RideListView> page = hasMore ? rows.subList(0, size) : rows;
+        RideListView last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPage.<RideDTO.RideListResponse>builder()
+                .content(page.stream().map(this::convertToListResponse).collect(Collectors.toList()))
+                .nextCursor(hasMore ? CursorCodec.encode(last.getCreatedAt(), last.getId()) : null)
+                .hasMore(hasMore)
+                .size(size)
+                .build();
+    }
+
+    private static Pageable unsorted(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    /** {@code driverId} is the driver's user id, as for every driver action */
     private void validateDriverAssigned(Ride ride, Long driverId) {
-        if (ride.getAssignedDriver() == null || !ride.getAssignedDriver().getId().equals(driverId)) {
+        if (ride.getAssignedDriver() == null || !ride.getAssignedDriver().getUser().getId().equals(driverId)) {
             throw new UnauthorizedException("You are not the assigned driver for this ride");
         }
     }
@@ -284,13 +358,17 @@ public class RideService {
     // ─── CONVERTERS ──────────────────────────────────────────
 
     public RideDTO.RideResponse convertToResponse(Ride ride) {
-        List<RideDTO.BidResponse> bidResponses = ride.getBids() != null
-                ? ride.getBids().stream().map(this::convertBidToResponse).collect(Collectors.toList())
+        return convertToResponse(ride, ride.getBids());
+    }
+
+    private RideDTO.RideResponse convertToResponse(Ride ride, List<RideBid> bids) {
+        List<RideDTO.BidResponse> bidResponses = bids != null
+                ? bids.stream().map(this::convertBidToResponse).collect(Collectors.toList())
                 : List.of();
 
         RideDTO.RideResponse.RideResponseBuilder builder = RideDTO.RideResponse.builder()
                 .id(ride.getId())
-                .status(ride.getStatus())
+                .status(ride.getStatus().name())
                 .passengerId(ride.getPassenger().getId())
                 .passengerName(ride.getPassenger().getFirstName() + " " + ride.getPassenger().getLastName())
                 .pickupAddress(ride.getPickupAddress())
@@ -332,41 +410,21 @@ public class RideService {
         return builder.build();
     }
 
-    private RideDTO.RideListResponse convertToListResponse(Ride ride) {
-        long bidCount = rideBidRepository.countByRideIdAndStatus(ride.getId(), "PENDING");
+    private RideDTO.RideListResponse convertToListResponse(RideListView row) {
         return RideDTO.RideListResponse.builder()
-                .id(ride.getId())
-                .status(ride.getStatus())
-                .pickupAddress(ride.getPickupAddress())
-                .dropoffAddress(ride.getDropoffAddress())
-                .offeredPrice(ride.getOfferedPrice())
-                .finalPrice(ride.getFinalPrice())
-                .vehicleType(ride.getVehicleType())
-                .bidCount(bidCount)
-                .assignedDriverName(ride.getAssignedDriver() != null
-                        ? ride.getAssignedDriver().getUser().getFirstName() + " " + ride.getAssignedDriver().getUser().getLastName()
+                .id(row.getId())
+                .status(row.getStatus().name())
+                .pickupAddress(row.getPickupAddress())
+                .dropoffAddress(row.getDropoffAddress())
+                .offeredPrice(row.getOfferedPrice())
+                .finalPrice(row.getFinalPrice())
+                .vehicleType(row.getVehicleType())
+                .bidCount(row.getBidCount())
+                .assignedDriverName(row.getDriverFirstName() != null
+                        ? row.getDriverFirstName() + " " + row.getDriverLastName()
                         : null)
-                .createdAt(ride.getCreatedAt())
-                .completedAt(ride.getCompletedAt())
-                .build();
-    }
-
-    private RideDTO.NearbyRideResponse convertToNearbyResponse(Ride ride) {
-        long bidCount = rideBidRepository.countByRideIdAndStatus(ride.getId(), "PENDING");
-        return RideDTO.NearbyRideResponse.builder()
-                .id(ride.getId())
-                .status(ride.getStatus())
-                .pickupAddress(ride.getPickupAddress())
-                .pickupLat(ride.getPickupLat())
-                .pickupLng(ride.getPickupLng())
-                .dropoffAddress(ride.getDropoffAddress())
-                .offeredPrice(ride.getOfferedPrice())
-                .vehicleType(ride.getVehicleType())
-                .notes(ride.getNotes())
-                .estimatedDistanceKm(ride.getEstimatedDistanceKm())
-                .estimatedDurationMin(ride.getEstimatedDurationMin())
-                .bidCount(bidCount)
-                .createdAt(ride.getCreatedAt())
+                .createdAt(row.getCreatedAt())
+                .completedAt(row.getCompletedAt())
                 .build();
     }
 
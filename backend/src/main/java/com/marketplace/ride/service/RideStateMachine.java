@@ -0,0 +1,114 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.common.exception.BadRequestException;
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.event.RideStatusChangedEvent;
+import com.marketplace.ride.repository.RideRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The only place a ride's status changes.
+ *
+ * A transition is a compare-and-set on the row
+ * ({@code UPDATE rides SET status = :to WHERE id = :id AND status IN (:from)}), so when two
+ * requests race (two accepts, a cancel against a start) the database lets exactly one win;
+ * the loser's update matches no row and fails with a 400. Every transition publishes a
+ * {@link RideStatusChangedEvent} inside the transaction.
+ */
+@Component
+public class RideStateMachine {
+
+    /** Target status → statuses it may be entered from */
+    private static final Map<RideStatus, Set<RideStatus>> ALLOWED_FROM = new EnumMap<>(RideStatus.class);
+
+    static {
+        ALLOWED_FROM.put(RideStatus.BIDDING, EnumSet.of(RideStatus.SEARCHING));
+        ALLOWED_FROM.put(RideStatus.ACCEPTED, EnumSet.of(RideStatus.SEARCHING, RideStatus.BIDDING));
+        ALLOWED_FROM.put(RideStatus.DRIVER_ARRIVING, EnumSet.of(RideStatus.ACCEPTED));
+        ALLOWED_FROM.put(RideStatus.IN_PROGRESS, EnumSet.of(RideStatus.ACCEPTED, RideStatus.DRIVER_ARRIVING));
+        ALLOWED_FROM.put(RideStatus.COMPLETED, EnumSet.of(RideStatus.IN_PROGRESS));
+        ALLOWED_FROM.put(RideStatus.CANCELLED, EnumSet.of(RideStatus.SEARCHING, RideStatus.BIDDING,
+                RideStatus.ACCEPTED, RideStatus.DRIVER_ARRIVING));
+    }
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public static boolean canTransition(RideStatus from, RideStatus to) {
+        return ALLOWED_FROM.getOrDefault(to, Set.of()).contains(from);
+    }
+
+    /** Announce a newly persisted ride (no previous status) */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void created(Ride ride) {
+        eventPublisher.publishEvent(RideStatusChangedEvent.of(ride, null));
+    }
+
+    /**
+     * Move the ride to {@code to} or throw. On success the entity carries the new status;
+     * set the fields that go with it (timestamps, driver, price) afterwards.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transition(Ride ride, RideStatus to) {
+        RideStatus from = ride.getStatus();
+        if (!canTransition(from, to)) {
+            throw new BadRequestException("Cannot change ride from " + from + " to " + to);
+        }
+        if (!tryTransition(ride, to)) {
+            throw new BadRequestException("Ride was changed by another request and can no longer move to " + to);
+        }
+    }
+
+    /**
+     * Cancel many rides in one statement, e.g. when they time out unmatched. The rides must
+     * be locked by the caller and in a status that may be cancelled. The entities are not
+     * updated; reload them if needed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int cancelAll(List<Ride> rides, String cancelledBy, String reason, LocalDateTime at) {
+        if (rides.isEmpty()) return 0;
+        Set<RideStatus> allowed = ALLOWED_FROM.get(RideStatus.CANCELLED);
+        List<Long> ids = rides.stream().map(Ride::getId).collect(Collectors.toList());
+        int updated = rideRepository.cancelAll(ids, allowed, at, cancelledBy, reason);
+        for (Ride ride : rides) {
+            if (allowed.contains(ride.getStatus())) {
+                eventPublisher.publishEvent(RideStatusChangedEvent.of(ride, ride.getStatus(), RideStatus.CANCELLED));
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Like {@link #transition} but reports a lost race or a disallowed move as {@code false}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryTransition(Ride ride, RideStatus to) {
+        RideStatus from = ride.getStatus();
+        Set<RideStatus> allowed = ALLOWED_FROM.getOrDefault(to, Set.of());
+        if (!allowed.contains(from)) return false;
+
+        // The row lock taken here is held until commit; a concurrent CAS waits and then matches nothing
+        if (rideRepository.compareAndSetStatus(ride.getId(), allowed, to) == 0) return false;
+
+        // Keep the managed entity in step; its version-checked flush writes the remaining fields
+        ride.setStatus(to);
+        eventPublisher.publishEvent(RideStatusChangedEvent.of(ride, from));
+        return true;
+    }
+}
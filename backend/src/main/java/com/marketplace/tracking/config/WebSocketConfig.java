@@ -2,6 +2,7 @@ package com.marketplace.tracking.config;
 
 import com.marketplace.auth.security.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -26,9 +27,61 @@ import java.util.stream.Collectors;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String BROKER_MODE_SIMPLE = "simple";
+    public static final String BROKER_MODE_RELAY = "relay";
+
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    /**
+     * simple → in-JVM broker (single node, also the stand-in for local runs and tests)
+     * relay  → external STOMP broker (RabbitMQ/ActiveMQ) shared by all backend nodes
+     */
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Channel thread pools (inbound = client frames, outbound = frames to clients, broker = fan-out).
+    // Fixed size with a bounded queue: a queued executor never grows past its core size until
+    // the queue is full, so a separate max size would have no effect.
+    @Value("${websocket.channel.inbound.pool-size:16}")
+    private int inboundPoolSize;
+
+    @Value("${websocket.channel.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.channel.outbound.pool-size:32}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.channel.outbound.queue-capacity:50000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.channel.broker.pool-size:8}")
+    private int brokerPoolSize;
+
+    @Value("${websocket.channel.broker.queue-capacity:10000}")
+    private int brokerQueueCapacity;
+
     /**
      * Configure the message broker.
      * /topic  → pub-sub (broadcast to all subscribers)
@@ -37,9 +90,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if (BROKER_MODE_RELAY.equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    // Lets /user destinations resolve sessions connected to other nodes
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (StringUtils.hasText(relayVirtualHost)) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Frames to one session leave in publish order (tracking SNAPSHOT/DELTA frames rely on it)
+        config.setPreservePublishOrder(true);
+        config.configureBrokerChannel().taskExecutor()
+                .corePoolSize(brokerPoolSize)
+                .maxPoolSize(brokerPoolSize)
+                .queueCapacity(brokerQueueCapacity);
     }
 
     /**
@@ -60,6 +135,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundPoolSize)
+                .maxPoolSize(inboundPoolSize)
+                .queueCapacity(inboundQueueCapacity);
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -88,4 +167,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             }
         });
     }
+
+    /**
+     * Frames to clients. Sized for location fan-out to many subscribers per driver topic.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
 }
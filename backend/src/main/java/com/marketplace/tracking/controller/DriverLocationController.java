@@ -1,17 +1,24 @@
 package com.marketplace.tracking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.marketplace.common.constants.Constants;
 import com.marketplace.common.payload.ApiResponse;
 import com.marketplace.tracking.dto.LocationDTO;
 import com.marketplace.tracking.service.LocationService;
+import com.marketplace.tracking.service.RideTraceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.util.List;
@@ -28,6 +35,12 @@ public class DriverLocationController {
     @Autowired
     private LocationService locationService;
 
+    @Autowired
+    private RideTraceService rideTraceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ─── WebSocket STOMP handlers ─────────────────────────────────────────────
 
     /**
@@ -58,17 +71,19 @@ public class DriverLocationController {
     // ─── REST endpoints ───────────────────────────────────────────────────────
 
     /**
-     * GET /api/tracking/drivers/online?lat=&lng=
-     * Returns all online drivers within ~5 km. Used for initial map render.
+     * GET /api/tracking/drivers/online?lat=&lng=&radiusKm=
+     * Returns online drivers within radiusKm (default 5 km), nearest first.
+     * Used for initial map render.
      */
     @GetMapping("/drivers/online")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ApiResponse<List<LocationDTO.OnlineDriverSnapshot>>> getNearbyDrivers(
             @RequestParam BigDecimal lat,
-            @RequestParam BigDecimal lng) {
+            @RequestParam BigDecimal lng,
+            @RequestParam(required = false) Double radiusKm) {
 
         List<LocationDTO.OnlineDriverSnapshot> drivers =
-                locationService.getNearbyOnlineDrivers(lat, lng);
+                locationService.getNearbyOnlineDrivers(lat, lng, radiusKm);
 
         return ResponseEntity.ok(
                 ApiResponse.success(Constants.STATUS_SUCCESS, Constants.MSG_SUCCESS, drivers));
@@ -107,4 +122,48 @@ public class DriverLocationController {
         return ResponseEntity.ok(
                 ApiResponse.success(Constants.STATUS_SUCCESS, "Location updated", broadcast));
     }
+
+    /**
+     * GET /api/tracking/rides/{rideId}/trace
+     * Replays the driver's path for a ride (passenger, assigned driver or admin).
+     * The usual ApiResponse envelope is written incrementally so long rides are
+     * streamed point by point instead of being built up in memory.
+     */
+    @GetMapping("/rides/{rideId}/trace")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> getRideTrace(
+            @PathVariable Long rideId,
+            Authentication authentication) {
+
+        Long userId = Long.parseLong(authentication.getPrincipal().toString());
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_SUPER_ADMIN"));
+        RideTraceService.TraceWindow window = rideTraceService.getTraceWindow(rideId, userId, isAdmin);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeNumberField("statusCode", Constants.STATUS_SUCCESS);
+                gen.writeStringField("statusMessage", Constants.MSG_SUCCESS);
+                gen.writeArrayFieldStart("data");
+                rideTraceService.replay(window, p -> {
+                    try {
+                        gen.writeStartObject();
+                        gen.writeNumberField("t", p.timeMillis());
+                        gen.writeNumberField("latitude", p.latitude());
+                        gen.writeNumberField("longitude", p.longitude());
+                        gen.writeNumberField("speedKmh", p.speedKmh());
+                        gen.writeNumberField("heading", p.heading());
+                        gen.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -1,5 +1,6 @@
 package com.marketplace.tracking.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -27,12 +28,23 @@ public class LocationDTO {
 
     // ─── OUTBOUND (server → subscribers via WebSocket topic) ──────────────────
 
-    /** Broadcast payload pushed to all subscribers of /topic/driver/{driverId}/location */
+    /** Frame types on /topic/driver/{driverId}/location */
+    public static final String FRAME_SNAPSHOT = "SNAPSHOT";
+    public static final String FRAME_DELTA = "DELTA";
+    public static final String FRAME_OFFLINE = "OFFLINE";
+
+    /**
+     * Full broadcast payload pushed to all subscribers of /topic/driver/{driverId}/location.
+     * Sent first and then periodically; intermediate frames are {@link LocationDelta}.
+     */
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class LocationBroadcast {
+        @Builder.Default
+        private String type = FRAME_SNAPSHOT;
         private Long   driverId;
         private String driverName;
         private BigDecimal latitude;
@@ -43,6 +55,26 @@ public class LocationDTO {
         private LocalDateTime lastSeen;
     }
 
+    /**
+     * Compact frame sent between snapshots. Heading/speed are omitted when unchanged
+     * and the timestamp is epoch millis instead of an ISO string.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LocationDelta {
+        @Builder.Default
+        private String type = FRAME_DELTA;
+        private Long   driverId;
+        private BigDecimal latitude;
+        private BigDecimal longitude;
+        private BigDecimal heading;
+        private BigDecimal speedKmh;
+        private Long ts;
+    }
+
     // ─── REST response (GET /api/tracking/drivers/online) ────────────────────
 
     /** Snapshot of a driver shown on the passenger's map */
@@ -59,5 +91,6 @@ public class LocationDTO {
         private BigDecimal longitude;
         private BigDecimal heading;
         private LocalDateTime lastSeen;
+        private BigDecimal distanceKm;  // from the query point; null for single-driver lookups
     }
 }
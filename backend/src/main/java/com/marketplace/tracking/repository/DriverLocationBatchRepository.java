@@ -0,0 +1,60 @@
+package com.marketplace.tracking.repository;
+
+import com.marketplace.tracking.service.LocationWriteBehindBuffer.PendingLocation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain-JDBC batch writes for driver_locations.
+ * Used by the write-behind flush so a whole batch costs one round trip.
+ */
+@Repository
+public class DriverLocationBatchRepository {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO driver_locations
+                (driver_id, latitude, longitude, heading, speed_kmh, accuracy_m, is_online, last_seen, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, TRUE, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                latitude   = VALUES(latitude),
+                longitude  = VALUES(longitude),
+                heading    = VALUES(heading),
+                speed_kmh  = VALUES(speed_kmh),
+                accuracy_m = VALUES(accuracy_m),
+                is_online  = TRUE,
+                last_seen  = VALUES(last_seen)
+            """;
+
+    private static final String MARK_OFFLINE_SQL =
+            "UPDATE driver_locations SET is_online = FALSE, last_seen = ? WHERE driver_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Insert-or-update the latest position of each driver (all marked online) */
+    public void upsertOnline(List<PendingLocation> locations) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, locations, locations.size(), (ps, loc) -> {
+            Timestamp seen = Timestamp.valueOf(loc.lastSeen());
+            ps.setLong(1, loc.driverId());
+            ps.setBigDecimal(2, loc.latitude());
+            ps.setBigDecimal(3, loc.longitude());
+            ps.setBigDecimal(4, loc.heading());
+            ps.setBigDecimal(5, loc.speedKmh());
+            ps.setBigDecimal(6, loc.accuracyM());
+            ps.setTimestamp(7, seen);
+            ps.setTimestamp(8, seen);
+        });
+    }
+
+    /** Flip existing rows to offline; drivers without a row are ignored */
+    public void markOffline(List<PendingLocation> locations) {
+        jdbcTemplate.batchUpdate(MARK_OFFLINE_SQL, locations, locations.size(), (ps, loc) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(loc.lastSeen()));
+            ps.setLong(2, loc.driverId());
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.marketplace.tracking.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * JDBC access to driver_trace_segments (blobs are not worth mapping as entities).
+ */
+@Repository
+public class DriverTraceRepository {
+
+    /** A sealed segment ready to be written */
+    public record SegmentRow(Long driverId, long startTime, long endTime, int pointCount, byte[] payload) {
+    }
+
+    /** Segment reader callback; invoked once per row while the result set is streamed */
+    @FunctionalInterface
+    public interface SegmentHandler {
+        void handle(long startTime, byte[] payload);
+    }
+
+    private static final String INSERT_SQL = """
+            INSERT INTO driver_trace_segments (driver_id, start_time, end_time, point_count, payload)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String SELECT_RANGE_SQL = """
+            SELECT start_time, payload FROM driver_trace_segments
+            WHERE driver_id = ? AND start_time BETWEEN ? AND ? AND end_time >= ?
+            ORDER BY start_time, id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<SegmentRow> segments) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, segments, segments.size(), (ps, seg) -> {
+            ps.setLong(1, seg.driverId());
+            ps.setLong(2, seg.startTime());
+            ps.setLong(3, seg.endTime());
+            ps.setInt(4, seg.pointCount());
+            ps.setBytes(5, seg.payload());
+        });
+    }
+
+    /**
+     * Streams the segments of a driver overlapping [fromMillis, toMillis] in time order.
+     * No segment spans more than {@code maxSegmentSpanMillis}, which bounds the index
+     * range scan below as well as above. The MySQL driver streams row by row, so only
+     * one payload is held at a time.
+     */
+    public void streamSegments(Long driverId, long fromMillis, long toMillis, long maxSegmentSpanMillis,
+                               SegmentHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_RANGE_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setLong(1, driverId);
+            ps.setLong(2, fromMillis - maxSegmentSpanMillis);
+            ps.setLong(3, toMillis);
+            ps.setLong(4, fromMillis);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.handle(rs.getLong("start_time"), rs.getBytes("payload")));
+    }
+}
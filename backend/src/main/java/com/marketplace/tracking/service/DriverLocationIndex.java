@@ -0,0 +1,138 @@
+package com.marketplace.tracking.service;
+
+import com.marketplace.common.util.SpatialGridIndex;
+import com.marketplace.rental.entity.Driver;
+import com.marketplace.tracking.entity.DriverLocation;
+import com.marketplace.tracking.repository.DriverLocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process spatial index of ONLINE drivers.
+ *
+ * Kept up to date by {@link LocationService} on every location push so that
+ * nearby-driver lookups never touch MySQL. Rebuilt from driver_locations on startup.
+ */
+@Component
+@Slf4j
+public class DriverLocationIndex {
+
+    /** Immutable view of an online driver, replaced wholesale on each update */
+    public record TrackedDriver(Long driverId,
+                                Long userId,
+                                String driverName,
+                                String vehicleTypes,
+                                BigDecimal rating,
+                                BigDecimal latitude,
+                                BigDecimal longitude,
+                                BigDecimal heading,
+                                BigDecimal speedKmh,
+                                LocalDateTime lastSeen) {
+
+        /** Same driver identity at a new position */
+        public TrackedDriver withPosition(BigDecimal lat, BigDecimal lng, BigDecimal newHeading,
+                                          BigDecimal newSpeedKmh, LocalDateTime seenAt) {
+            return new TrackedDriver(driverId, userId, driverName, vehicleTypes, rating,
+                    lat, lng, newHeading, newSpeedKmh, seenAt);
+        }
+    }
+
+    private final SpatialGridIndex<TrackedDriver> grid;
+    private final Map<Long, Long> driverIdByUserId = new ConcurrentHashMap<>();
+    private final DriverLocationRepository locationRepository;
+
+    public DriverLocationIndex(DriverLocationRepository locationRepository,
+                               @Value("${tracking.index.cell-size-deg:0.01}") double cellSizeDeg) {
+        this.locationRepository = locationRepository;
+        this.grid = new SpatialGridIndex<>(cellSizeDeg);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        grid.clear();
+        driverIdByUserId.clear();
+        for (DriverLocation loc : locationRepository.findByIsOnlineTrue()) {
+            put(toTracked(loc.getDriver(), loc.getLatitude(), loc.getLongitude(),
+                    loc.getHeading(), loc.getSpeedKmh(), loc.getLastSeen()));
+        }
+        log.info("Driver location index rebuilt with {} online drivers", grid.size());
+    }
+
+    public void put(TrackedDriver driver) {
+        grid.put(driver.driverId(), driver.latitude().doubleValue(), driver.longitude().doubleValue(), driver);
+        driverIdByUserId.put(driver.userId(), driver.driverId());
+    }
+
+    public void remove(Long driverId) {
+        TrackedDriver removed = grid.remove(driverId);
+        if (removed != null) {
+            driverIdByUserId.remove(removed.userId(), driverId);
+        }
+    }
+
+    /**
+     * Remove the driver only if {@code expected} is still its latest state.
+     * Returns false when a newer location arrived in the meantime.
+     */
+    public boolean removeIfUnchanged(TrackedDriver expected) {
+        boolean removed = grid.remove(expected.driverId(), expected);
+        if (removed) {
+            driverIdByUserId.remove(expected.userId(), expected.driverId());
+        }
+        return removed;
+    }
+
+    public void forEach(Consumer<TrackedDriver> consumer) {
+        grid.forEach(entry -> consumer.accept(entry.value()));
+    }
+
+    /** Online driver owned by the given user account, or null if not online */
+    public TrackedDriver findByUserId(Long userId) {
+        Long driverId = driverIdByUserId.get(userId);
+        return driverId != null ? get(driverId) : null;
+    }
+
+    public TrackedDriver get(Long driverId) {
+        SpatialGridIndex.Entry<TrackedDriver> entry = grid.get(driverId);
+        return entry != null ? entry.value() : null;
+    }
+
+    /** Online drivers within {@code radiusKm}, nearest first */
+    public List<SpatialGridIndex.Hit<TrackedDriver>> findNearby(double lat, double lng, double radiusKm) {
+        return grid.within(lat, lng, radiusKm);
+    }
+
+    /** Approximate online-driver count around a point, from per-cell counters */
+    public int countNear(double lat, double lng, double radiusKm) {
+        return grid.countInCells(lat, lng, radiusKm);
+    }
+
+    public int size() {
+        return grid.size();
+    }
+
+    public static TrackedDriver toTracked(Driver d, BigDecimal lat, BigDecimal lng,
+                                          BigDecimal heading, BigDecimal speedKmh, LocalDateTime lastSeen) {
+        return new TrackedDriver(
+                d.getId(),
+                d.getUser().getId(),
+                d.getUser().getFirstName() + " " + d.getUser().getLastName(),
+                d.getVehicleTypes(),
+                d.getRating(),
+                lat, lng, heading, speedKmh, lastSeen);
+    }
+}
@@ -0,0 +1,154 @@
+package com.marketplace.tracking.service;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary encoding of a driver's GPS points.
+ *
+ * Per point, relative to the previous one (the first point is relative to
+ * lat/lng 0 and the segment start time):
+ * <pre>
+ *   zigzag varint  Δlat   (1e-6 degrees)
+ *   zigzag varint  Δlng   (1e-6 degrees)
+ *   varint         Δtime  (milliseconds, never negative)
+ *   varint         speed  (0.1 km/h)
+ *   varint         heading (whole degrees 0-359)
+ * </pre>
+ * A driver moving at city speed with a 2-3 s update interval costs about 8 bytes per point.
+ */
+public class DriverTraceCodec {
+
+    /** Fixed-point scale for coordinates */
+    public static final double COORD_SCALE = 1_000_000d;
+
+    /** A decoded trace point */
+    public record TracePoint(long timeMillis, double latitude, double longitude,
+                             double speedKmh, int heading) {
+    }
+
+    /**
+     * Appends points to a growable buffer. Not thread-safe; callers synchronize per driver.
+     */
+    public static class Encoder {
+        private final long startTime;
+        private byte[] buf = new byte[256];
+        private int len;
+        private int count;
+        private int lastLat;
+        private int lastLng;
+        private long lastTime;
+
+        public Encoder(long startTime) {
+            this.startTime = startTime;
+            this.lastTime = startTime;
+        }
+
+        public void append(long timeMillis, double lat, double lng, double speedKmh, double heading) {
+            int fLat = (int) Math.round(lat * COORD_SCALE);
+            int fLng = (int) Math.round(lng * COORD_SCALE);
+            long t = Math.max(timeMillis, lastTime);
+
+            writeVarint(zigzag(fLat - lastLat));
+            writeVarint(zigzag(fLng - lastLng));
+            writeVarint(t - lastTime);
+            writeVarint(Math.max(0, Math.round(speedKmh * 10)));
+            writeVarint(Math.floorMod(Math.round(heading), 360));
+
+            lastLat = fLat;
+            lastLng = fLng;
+            lastTime = t;
+            count++;
+        }
+
+        /** True if the point has the same fixed-point position as the last one */
+        public boolean isSamePosition(double lat, double lng) {
+            return count > 0
+                    && (int) Math.round(lat * COORD_SCALE) == lastLat
+                    && (int) Math.round(lng * COORD_SCALE) == lastLng;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return lastTime;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buf, len);
+        }
+
+        private void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[len++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[len++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (len + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+            }
+        }
+    }
+
+    /**
+     * Lazily decodes a segment payload, one point at a time.
+     */
+    public static Iterator<TracePoint> decode(byte[] payload, long startTime) {
+        return new Iterator<>() {
+            private int pos;
+            private int lat;
+            private int lng;
+            private long time = startTime;
+
+            @Override
+            public boolean hasNext() {
+                return pos < payload.length;
+            }
+
+            @Override
+            public TracePoint next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                lat += unzigzag(readVarint());
+                lng += unzigzag(readVarint());
+                time += readVarint();
+                long speed = readVarint();
+                long heading = readVarint();
+                return new TracePoint(time, lat / COORD_SCALE, lng / COORD_SCALE, speed / 10d, (int) heading);
+            }
+
+            private long readVarint() {
+                long result = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = payload[pos++];
+                    result |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                return result;
+            }
+        };
+    }
+
+    private static long zigzag(int v) {
+        return ((long) v << 1) ^ ((long) v >> 63);
+    }
+
+    private static int unzigzag(long v) {
+        return (int) ((v >>> 1) ^ -(v & 1));
+    }
+
+    private DriverTraceCodec() {
+    }
+}
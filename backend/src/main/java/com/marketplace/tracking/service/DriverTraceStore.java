@@ -0,0 +1,165 @@
+package com.marketplace.tracking.service;
+
+import com.marketplace.tracking.repository.DriverTraceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Append-only history of driver positions.
+ *
+ * Each driver has one open in-memory segment; it is sealed when it reaches
+ * {@code tracking.trace.segment-max-points} or is older than
+ * {@code tracking.trace.segment-max-age-ms} (checked on append and by the periodic
+ * flush, so no segment spans more than that age), and sealed segments are written to
+ * driver_trace_segments in batches.
+ */
+@Component
+@Slf4j
+public class DriverTraceStore {
+
+    private final ConcurrentHashMap<Long, DriverTraceCodec.Encoder> openSegments = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<DriverTraceRepository.SegmentRow> sealed = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    private DriverTraceRepository traceRepository;
+
+    @Value("${tracking.trace.segment-max-points:256}")
+    private int segmentMaxPoints;
+
+    @Value("${tracking.trace.segment-max-age-ms:60000}")
+    private long segmentMaxAgeMs;
+
+    @Value("${tracking.trace.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Record one point. Points identical in position to the previous one are skipped.
+     */
+    public void append(Long driverId, long timeMillis, double lat, double lng, double speedKmh, double heading) {
+        openSegments.compute(driverId, (id, encoder) -> {
+            if (encoder == null) {
+                encoder = new DriverTraceCodec.Encoder(timeMillis);
+            } else if (encoder.isSamePosition(lat, lng)) {
+                return encoder;
+            } else if (timeMillis - encoder.getStartTime() >= segmentMaxAgeMs) {
+                // Replays rely on no segment spanning more than the max age
+                seal(id, encoder);
+                encoder = new DriverTraceCodec.Encoder(timeMillis);
+            }
+            encoder.append(timeMillis, lat, lng, speedKmh, heading);
+            if (encoder.getCount() >= segmentMaxPoints) {
+                seal(id, encoder);
+                return null;
+            }
+            return encoder;
+        });
+    }
+
+    /**
+     * Replays a driver's points in [fromMillis, toMillis] in time order: persisted
+     * segments are streamed from the database, then sealed but unflushed segments and
+     * the still-open segment are read from memory. Points are decoded one at a time.
+     */
+    public void replay(Long driverId, long fromMillis, long toMillis, Consumer<DriverTraceCodec.TracePoint> consumer) {
+        Consumer<DriverTraceCodec.TracePoint> inWindow = p -> {
+            if (p.timeMillis() >= fromMillis && p.timeMillis() <= toMillis) {
+                consumer.accept(p);
+            }
+        };
+
+        // Snapshot memory before reading the database, open segment first: a segment that
+        // is sealed or flushed meanwhile is then seen twice and skipped once, never missed
+        DriverTraceRepository.SegmentRow open = snapshotOpenSegment(driverId);
+        List<DriverTraceRepository.SegmentRow> unflushed = new ArrayList<>();
+        for (DriverTraceRepository.SegmentRow row : sealed) {
+            if (row.driverId().equals(driverId)) unflushed.add(row);
+        }
+
+        Set<Long> sealedStarts = new HashSet<>();
+        traceRepository.streamSegments(driverId, fromMillis, toMillis, segmentMaxAgeMs, (startTime, payload) -> {
+            sealedStarts.add(startTime);
+            unflushed.removeIf(row -> row.startTime() == startTime && Arrays.equals(row.payload(), payload));
+            DriverTraceCodec.decode(payload, startTime).forEachRemaining(inWindow);
+        });
+        for (DriverTraceRepository.SegmentRow row : unflushed) {
+            sealedStarts.add(row.startTime());
+            DriverTraceCodec.decode(row.payload(), row.startTime()).forEachRemaining(inWindow);
+        }
+        // A sealed copy of the open segment holds every point the snapshot has
+        if (open != null && !sealedStarts.contains(open.startTime())) {
+            DriverTraceCodec.decode(open.payload(), open.startTime()).forEachRemaining(inWindow);
+        }
+    }
+
+    /** Seal segments that have been open too long, then persist everything sealed */
+    @Scheduled(fixedDelayString = "${tracking.trace.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        long cutoff = System.currentTimeMillis() - segmentMaxAgeMs;
+        for (Long driverId : openSegments.keySet()) {
+            openSegments.computeIfPresent(driverId, (id, encoder) -> {
+                if (encoder.getStartTime() > cutoff) return encoder;
+                seal(id, encoder);
+                return null;
+            });
+        }
+        persistSealed();
+    }
+
+    @PreDestroy
+    public synchronized void flushOnShutdown() {
+        for (Long driverId : openSegments.keySet()) {
+            openSegments.computeIfPresent(driverId, (id, encoder) -> {
+                seal(id, encoder);
+                return null;
+            });
+        }
+        persistSealed();
+    }
+
+    private DriverTraceRepository.SegmentRow snapshotOpenSegment(Long driverId) {
+        DriverTraceRepository.SegmentRow[] open = new DriverTraceRepository.SegmentRow[1];
+        openSegments.computeIfPresent(driverId, (id, encoder) -> {
+            open[0] = new DriverTraceRepository.SegmentRow(id, encoder.getStartTime(), encoder.getEndTime(),
+                    encoder.getCount(), encoder.toByteArray());
+            return encoder;
+        });
+        return open[0];
+    }
+
+    private void seal(Long driverId, DriverTraceCodec.Encoder encoder) {
+        if (encoder.getCount() == 0) return;
+        sealed.add(new DriverTraceRepository.SegmentRow(driverId, encoder.getStartTime(), encoder.getEndTime(),
+                encoder.getCount(), encoder.toByteArray()));
+    }
+
+    private void persistSealed() {
+        while (!sealed.isEmpty()) {
+            List<DriverTraceRepository.SegmentRow> batch = new ArrayList<>(batchSize);
+            for (DriverTraceRepository.SegmentRow row : sealed) {
+                batch.add(row);
+                if (batch.size() == batchSize) break;
+            }
+            try {
+                traceRepository.insertAll(batch);
+                // Remove only after the write; replays read memory before the database
+                batch.forEach(sealed::remove);
+            } catch (RuntimeException ex) {
+                log.error("Failed to persist {} trace segments, will retry", batch.size(), ex);
+                return;
+            }
+        }
+    }
+}
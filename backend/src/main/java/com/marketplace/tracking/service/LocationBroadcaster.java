@@ -0,0 +1,127 @@
+package com.marketplace.tracking.service;
+
+import com.marketplace.common.util.GeoUtil;
+import com.marketplace.tracking.dto.LocationDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalescing fan-out stage for /topic/driver/{driverId}/location.
+ *
+ * Location pushes only replace the pending position of a driver; once per tick
+ * the latest position is published. Sub-threshold moves are dropped, and after
+ * the first full {@link LocationDTO.LocationBroadcast} subscribers receive
+ * compact {@link LocationDTO.LocationDelta} frames until the next periodic snapshot.
+ */
+@Component
+public class LocationBroadcaster {
+
+    /** What subscribers of a driver topic last received */
+    private record SentState(double lat, double lng, BigDecimal heading, BigDecimal speedKmh,
+                             long snapshotAtMillis) {
+    }
+
+    private final ConcurrentHashMap<Long, DriverLocationIndex.TrackedDriver> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SentState> sent = new ConcurrentHashMap<>();
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private DriverLocationIndex driverLocationIndex;
+
+    /** Moves shorter than this are not broadcast */
+    @Value("${tracking.broadcast.min-move-m:5}")
+    private double minMoveMeters;
+
+    /** A full snapshot is re-sent at least this often so late subscribers get the driver name */
+    @Value("${tracking.broadcast.snapshot-interval-ms:10000}")
+    private long snapshotIntervalMs;
+
+    /** Queue the latest position; it is published on the next tick */
+    public void submit(DriverLocationIndex.TrackedDriver driver) {
+        pending.put(driver.driverId(), driver);
+    }
+
+    /** Offline is a state change, not a position — publish it right away */
+    public void publishOffline(Long driverId, String driverName, LocalDateTime lastSeen) {
+        pending.remove(driverId);
+        sent.remove(driverId);
+        messagingTemplate.convertAndSend(topic(driverId),
+                LocationDTO.LocationBroadcast.builder()
+                        .type(LocationDTO.FRAME_OFFLINE)
+                        .driverId(driverId)
+                        .driverName(driverName)
+                        .isOnline(false)
+                        .lastSeen(lastSeen)
+                        .build());
+    }
+
+    @Scheduled(fixedRateString = "${tracking.broadcast.tick-ms:250}")
+    public void tick() {
+        if (pending.isEmpty()) return;
+        long now = System.currentTimeMillis();
+
+        for (Long driverId : pending.keySet()) {
+            DriverLocationIndex.TrackedDriver driver = pending.remove(driverId);
+            // Skip drivers that went offline after queueing
+            if (driver == null || driverLocationIndex.get(driverId) == null) continue;
+            publish(driver, now);
+        }
+    }
+
+    private void publish(DriverLocationIndex.TrackedDriver d, long now) {
+        double lat = d.latitude().doubleValue();
+        double lng = d.longitude().doubleValue();
+        SentState last = sent.get(d.driverId());
+
+        if (last == null || now - last.snapshotAtMillis() >= snapshotIntervalMs) {
+            messagingTemplate.convertAndSend(topic(d.driverId()),
+                    LocationDTO.LocationBroadcast.builder()
+                            .driverId(d.driverId())
+                            .driverName(d.driverName())
+                            .latitude(d.latitude())
+                            .longitude(d.longitude())
+                            .heading(d.heading())
+                            .speedKmh(d.speedKmh())
+                            .isOnline(true)
+                            .lastSeen(d.lastSeen())
+                            .build());
+            sent.put(d.driverId(), new SentState(lat, lng, d.heading(), d.speedKmh(), now));
+            return;
+        }
+
+        double movedMeters = GeoUtil.haversineKm(last.lat(), last.lng(), lat, lng) * 1000;
+        if (movedMeters < minMoveMeters) return;
+
+        boolean headingChanged = !sameValue(last.heading(), d.heading());
+        boolean speedChanged = !sameValue(last.speedKmh(), d.speedKmh());
+        messagingTemplate.convertAndSend(topic(d.driverId()),
+                LocationDTO.LocationDelta.builder()
+                        .driverId(d.driverId())
+                        .latitude(d.latitude())
+                        .longitude(d.longitude())
+                        .heading(headingChanged ? d.heading() : null)
+                        .speedKmh(speedChanged ? d.speedKmh() : null)
+                        .ts(d.lastSeen().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                        .build());
+        sent.put(d.driverId(), new SentState(lat, lng, d.heading(), d.speedKmh(), last.snapshotAtMillis()));
+    }
+
+    private static boolean sameValue(BigDecimal a, BigDecimal b) {
+        return Objects.equals(a, b) || (a != null && b != null && a.compareTo(b) == 0);
+    }
+
+    private static String topic(Long driverId) {
+        return "/topic/driver/" + driverId + "/location";
+    }
+}
@@ -1,17 +1,20 @@
 package com.marketplace.tracking.service;
 
 import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.util.SpatialGridIndex;
 import com.marketplace.rental.entity.Driver;
 import com.marketplace.rental.repository.DriverRepository;
 import com.marketplace.tracking.dto.LocationDTO;
 import com.marketplace.tracking.entity.DriverLocation;
 import com.marketplace.tracking.repository.DriverLocationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,8 +23,13 @@ import java.util.stream.Collectors;
 @Transactional
 public class LocationService {
 
-    /** ≈5 km radius in decimal degrees */
-    private static final BigDecimal NEARBY_DEGREES = new BigDecimal("0.045");
+    /** Default search radius for the passenger map */
+    @Value("${tracking.nearby.radius-km:5}")
+    private double defaultRadiusKm;
+
+    /** Upper bound on a client-supplied radius */
+    @Value("${tracking.nearby.max-radius-km:25}")
+    private double maxRadiusKm;
 
     @Autowired
     private DriverLocationRepository locationRepository;
@@ -30,83 +38,129 @@ public class LocationService {
     private DriverRepository driverRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private DriverLocationIndex driverLocationIndex;
+
+    @Autowired
+    private LocationWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private LocationBroadcaster locationBroadcaster;
+
+    @Autowired
+    private DriverTraceStore traceStore;
+
+    @Autowired
+    private StaleDriverSweeper staleDriverSweeper;
 
     // ─── DRIVER PUSHES LOCATION ───────────────────────────────────────────────
 
     /**
      * Called when a driver sends a location update via WebSocket.
-     * Upserts the driver_locations row and broadcasts to all
-     * subscribers of /topic/driver/{driverId}/location.
+     * Updates the in-memory index, queues the driver_locations upsert on the
+     * write-behind buffer and hands the position to the coalescing broadcaster,
+     * which publishes to /topic/driver/{driverId}/location on its next tick.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LocationDTO.LocationBroadcast updateDriverLocation(Long userId,
                                                                LocationDTO.LocationUpdate update) {
-        Driver driver = driverRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Driver profile not found for userId: " + userId));
-
-        // Upsert: update existing row or insert new one
-        DriverLocation loc = locationRepository.findByDriverId(driver.getId())
-                .orElse(DriverLocation.builder().driver(driver).build());
-
-        loc.setLatitude(update.getLatitude());
-        loc.setLongitude(update.getLongitude());
-        loc.setHeading(update.getHeading() != null ? update.getHeading() : BigDecimal.ZERO);
-        loc.setSpeedKmh(update.getSpeedKmh() != null ? update.getSpeedKmh() : BigDecimal.ZERO);
-        loc.setAccuracyM(update.getAccuracyM());
-        loc.setIsOnline(true);
-        loc.setLastSeen(LocalDateTime.now());
-        locationRepository.save(loc);
-
-        // Build broadcast payload
-        LocationDTO.LocationBroadcast broadcast = LocationDTO.LocationBroadcast.builder()
-                .driverId(driver.getId())
-                .driverName(driver.getUser().getFirstName() + " " + driver.getUser().getLastName())
-                .latitude(loc.getLatitude())
-                .longitude(loc.getLongitude())
-                .heading(loc.getHeading())
-                .speedKmh(loc.getSpeedKmh())
+        DriverLocationIndex.TrackedDriver identity = resolveDriver(userId);
+
+        BigDecimal heading = update.getHeading() != null ? update.getHeading() : BigDecimal.ZERO;
+        BigDecimal speedKmh = update.getSpeedKmh() != null ? update.getSpeedKmh() : BigDecimal.ZERO;
+        LocalDateTime now = LocalDateTime.now();
+
+        DriverLocationIndex.TrackedDriver tracked =
+                identity.withPosition(update.getLatitude(), update.getLongitude(), heading, speedKmh, now);
+        driverLocationIndex.put(tracked);
+        staleDriverSweeper.track(tracked.driverId(), now);
+
+        // Persisted asynchronously in batches — only the latest point per driver survives
+        writeBehindBuffer.enqueue(new LocationWriteBehindBuffer.PendingLocation(
+                tracked.driverId(), tracked.latitude(), tracked.longitude(),
+                heading, speedKmh, update.getAccuracyM(), true, now));
+
+        // Route history for rides, disputes and ETA modelling
+        traceStore.append(tracked.driverId(), System.currentTimeMillis(),
+                tracked.latitude().doubleValue(), tracked.longitude().doubleValue(),
+                speedKmh.doubleValue(), heading.doubleValue());
+
+        // Coalesced per tick — subscribers get at most one frame per driver per tick
+        locationBroadcaster.submit(tracked);
+
+        return LocationDTO.LocationBroadcast.builder()
+                .driverId(tracked.driverId())
+                .driverName(tracked.driverName())
+                .latitude(tracked.latitude())
+                .longitude(tracked.longitude())
+                .heading(heading)
+                .speedKmh(speedKmh)
                 .isOnline(true)
-                .lastSeen(loc.getLastSeen())
+                .lastSeen(now)
                 .build();
-
-        // Push to topic — all subscribed passengers/admins receive this
-        messagingTemplate.convertAndSend(
-                "/topic/driver/" + driver.getId() + "/location",
-                broadcast);
-
-        return broadcast;
     }
 
     /**
      * Driver goes offline — mark as offline and broadcast final state.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void setDriverOffline(Long userId) {
-        driverRepository.findByUserId(userId).ifPresent(driver ->
-                locationRepository.findByDriverId(driver.getId()).ifPresent(loc -> {
-                    loc.setIsOnline(false);
-                    loc.setLastSeen(LocalDateTime.now());
-                    locationRepository.save(loc);
-
-                    messagingTemplate.convertAndSend(
-                            "/topic/driver/" + driver.getId() + "/location",
-                            LocationDTO.LocationBroadcast.builder()
-                                    .driverId(driver.getId())
-                                    .driverName(driver.getUser().getFirstName() + " " + driver.getUser().getLastName())
-                                    .isOnline(false)
-                                    .lastSeen(loc.getLastSeen())
-                                    .build());
-                })
-        );
+        DriverLocationIndex.TrackedDriver tracked = driverLocationIndex.findByUserId(userId);
+        Long driverId;
+        String driverName;
+        if (tracked != null) {
+            driverId = tracked.driverId();
+            driverName = tracked.driverName();
+        } else {
+            Driver driver = driverRepository.findByUserId(userId).orElse(null);
+            if (driver == null) return;
+            driverId = driver.getId();
+            driverName = driver.getUser().getFirstName() + " " + driver.getUser().getLastName();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        driverLocationIndex.remove(driverId);
+        writeBehindBuffer.enqueue(new LocationWriteBehindBuffer.PendingLocation(
+                driverId, null, null, null, null, null, false, now));
+
+        locationBroadcaster.publishOffline(driverId, driverName, now);
+    }
+
+    /**
+     * Driver identity for a user. Online drivers are served from the index;
+     * the database is only hit when a driver comes online.
+     */
+    private DriverLocationIndex.TrackedDriver resolveDriver(Long userId) {
+        DriverLocationIndex.TrackedDriver tracked = driverLocationIndex.findByUserId(userId);
+        if (tracked != null) {
+            return tracked;
+        }
+        Driver driver = driverRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Driver profile not found for userId: " + userId));
+        return DriverLocationIndex.toTracked(driver, null, null, null, null, null);
     }
 
     // ─── QUERIES (REST endpoints) ─────────────────────────────────────────────
 
     /**
      * Get the latest location for a specific driver.
+     * Online drivers are answered from memory, which is never behind the write-behind buffer.
      */
     @Transactional(readOnly = true)
     public LocationDTO.OnlineDriverSnapshot getDriverLocation(Long driverId) {
+        DriverLocationIndex.TrackedDriver tracked = driverLocationIndex.get(driverId);
+        if (tracked != null) {
+            return LocationDTO.OnlineDriverSnapshot.builder()
+                    .driverId(tracked.driverId())
+                    .driverName(tracked.driverName())
+                    .driverVehicleType(tracked.vehicleTypes())
+                    .driverRating(tracked.rating())
+                    .latitude(tracked.latitude())
+                    .longitude(tracked.longitude())
+                    .heading(tracked.heading())
+                    .lastSeen(tracked.lastSeen())
+                    .build();
+        }
         DriverLocation loc = locationRepository.findByDriverId(driverId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "No location data found for driverId: " + driverId));
@@ -114,14 +168,18 @@ public class LocationService {
     }
 
     /**
-     * Get all online drivers within ~5 km of the given coordinates.
+     * Get all online drivers within {@code radiusKm} of the given coordinates,
+     * nearest first. Served from the in-memory index — no database access.
      * Used by the passenger's map view.
      */
-    @Transactional(readOnly = true)
-    public List<LocationDTO.OnlineDriverSnapshot> getNearbyOnlineDrivers(BigDecimal lat, BigDecimal lng) {
-        return locationRepository.findOnlineDriversInBounds(
-                        lat.subtract(NEARBY_DEGREES), lat.add(NEARBY_DEGREES),
-                        lng.subtract(NEARBY_DEGREES), lng.add(NEARBY_DEGREES))
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<LocationDTO.OnlineDriverSnapshot> getNearbyOnlineDrivers(BigDecimal lat, BigDecimal lng,
+                                                                          Double radiusKm) {
+        double radius = radiusKm != null && radiusKm > 0
+                ? Math.min(radiusKm, maxRadiusKm)
+                : defaultRadiusKm;
+
+        return driverLocationIndex.findNearby(lat.doubleValue(), lng.doubleValue(), radius)
                 .stream()
                 .map(this::toSnapshot)
                 .collect(Collectors.toList());
@@ -142,4 +200,19 @@ public class LocationService {
                 .lastSeen(loc.getLastSeen())
                 .build();
     }
+
+    private LocationDTO.OnlineDriverSnapshot toSnapshot(SpatialGridIndex.Hit<DriverLocationIndex.TrackedDriver> hit) {
+        DriverLocationIndex.TrackedDriver d = hit.value();
+        return LocationDTO.OnlineDriverSnapshot.builder()
+                .driverId(d.driverId())
+                .driverName(d.driverName())
+                .driverVehicleType(d.vehicleTypes())
+                .driverRating(d.rating())
+                .latitude(d.latitude())
+                .longitude(d.longitude())
+                .heading(d.heading())
+                .lastSeen(d.lastSeen())
+                .distanceKm(BigDecimal.valueOf(hit.distanceKm()).setScale(3, RoundingMode.HALF_UP))
+                .build();
+    }
 }
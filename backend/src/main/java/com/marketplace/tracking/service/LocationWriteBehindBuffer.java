@@ -0,0 +1,90 @@
+package com.marketplace.tracking.service;
+
+import com.marketplace.tracking.repository.DriverLocationBatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for driver_locations.
+ *
+ * Holds only the LATEST pending state per driver; a driver pushing GPS every
+ * 2 seconds with a 2 second flush interval costs one batched row write per
+ * interval instead of one transaction per message. Flushed periodically and
+ * on shutdown.
+ */
+@Component
+@Slf4j
+public class LocationWriteBehindBuffer {
+
+    /** Latest un-persisted state of one driver */
+    public record PendingLocation(Long driverId,
+                                  BigDecimal latitude,
+                                  BigDecimal longitude,
+                                  BigDecimal heading,
+                                  BigDecimal speedKmh,
+                                  BigDecimal accuracyM,
+                                  boolean online,
+                                  LocalDateTime lastSeen) {
+    }
+
+    private final ConcurrentHashMap<Long, PendingLocation> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private DriverLocationBatchRepository batchRepository;
+
+    @Value("${tracking.write-behind.batch-size:500}")
+    private int batchSize;
+
+    /** Replace any pending state for this driver with the newer one */
+    public void enqueue(PendingLocation location) {
+        pending.put(location.driverId(), location);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.write-behind.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+
+        List<PendingLocation> online = new ArrayList<>();
+        List<PendingLocation> offline = new ArrayList<>();
+        for (Long driverId : pending.keySet()) {
+            PendingLocation loc = pending.remove(driverId);
+            if (loc == null) continue;
+            (loc.online() ? online : offline).add(loc);
+        }
+
+        write(online, true);
+        write(offline, false);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(List<PendingLocation> locations, boolean online) {
+        for (int from = 0; from < locations.size(); from += batchSize) {
+            List<PendingLocation> chunk = locations.subList(from, Math.min(from + batchSize, locations.size()));
+            try {
+                if (online) {
+                    batchRepository.upsertOnline(chunk);
+                } else {
+                    batchRepository.markOffline(chunk);
+                }
+            } catch (RuntimeException ex) {
+                log.error("Failed to flush {} driver locations, re-queueing", chunk.size(), ex);
+                // Never overwrite a newer update that arrived while we were writing
+                chunk.forEach(loc -> pending.putIfAbsent(loc.driverId(), loc));
+            }
+        }
+    }
+}
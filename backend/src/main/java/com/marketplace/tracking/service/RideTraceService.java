@@ -0,0 +1,67 @@
+package com.marketplace.tracking.service;
+
+import com.marketplace.common.exception.BadRequestException;
+import com.marketplace.common.exception.ResourceNotFoundException;
+import com.marketplace.common.exception.UnauthorizedException;
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.repository.RideRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+/**
+ * Replays the path a driver took during a ride from the trace store.
+ */
+@Service
+public class RideTraceService {
+
+    /** Which driver's trace and which time range make up a ride */
+    public record TraceWindow(Long rideId, Long driverId, long fromMillis, long toMillis) {
+    }
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private DriverTraceStore traceStore;
+
+    /**
+     * Resolve and authorize the trace window of a ride: from acceptance to
+     * completion/cancellation (or now while the ride is still running).
+     * Only the passenger, the assigned driver or an admin may replay it.
+     */
+    @Transactional(readOnly = true)
+    public TraceWindow getTraceWindow(Long rideId, Long userId, boolean isAdmin) {
+        Ride ride = rideRepository.findById(rideId)
+                .orElseThrow(() -> new ResourceNotFoundException("Ride not found with id: " + rideId));
+
+        if (ride.getAssignedDriver() == null || ride.getAcceptedAt() == null) {
+            throw new BadRequestException("Ride has no driver assigned yet");
+        }
+
+        boolean isPassenger = ride.getPassenger().getId().equals(userId);
+        boolean isDriver = ride.getAssignedDriver().getUser().getId().equals(userId);
+        if (!isPassenger && !isDriver && !isAdmin) {
+            throw new UnauthorizedException("You are not allowed to view this ride's trace");
+        }
+
+        LocalDateTime end = ride.getCompletedAt() != null ? ride.getCompletedAt()
+                : ride.getCancelledAt() != null ? ride.getCancelledAt()
+                : LocalDateTime.now();
+
+        return new TraceWindow(rideId, ride.getAssignedDriver().getId(), toMillis(ride.getAcceptedAt()), toMillis(end));
+    }
+
+    /** Stream the ride's points in time order without materialising the path */
+    public void replay(TraceWindow window, Consumer<DriverTraceCodec.TracePoint> consumer) {
+        traceStore.replay(window.driverId(), window.fromMillis(), window.toMillis(), consumer);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,117 @@
+package com.marketplace.tracking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expires online drivers that stopped sending locations (crashed app, lost network).
+ *
+ * Each online driver has one entry in a deadline-ordered queue. Entries are
+ * re-armed lazily: a sweep pops due entries and only then checks the driver's
+ * current lastSeen in the index, so location updates cost a hash lookup and
+ * never reorder the queue. Expired drivers are removed from the index, marked
+ * offline through the write-behind buffer (one batched UPDATE) and broadcast.
+ */
+@Component
+@Slf4j
+public class StaleDriverSweeper {
+
+    private record Expiry(long deadlineMillis, Long driverId) {
+    }
+
+    private final PriorityQueue<Expiry> queue = new PriorityQueue<>(Comparator.comparingLong(Expiry::deadlineMillis));
+    private final ConcurrentHashMap<Long, Boolean> armed = new ConcurrentHashMap<>();
+
+    @Autowired
+    private DriverLocationIndex driverLocationIndex;
+
+    @Autowired
+    private LocationWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private LocationBroadcaster locationBroadcaster;
+
+    /** A driver silent for longer than this is considered offline */
+    @Value("${tracking.stale.ttl-ms:60000}")
+    private long ttlMs;
+
+    /** Arm expiry for every driver loaded into the index at startup (runs after the index rebuild) */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(100)
+    public void armLoadedDrivers() {
+        driverLocationIndex.forEach(d -> track(d.driverId(), d.lastSeen()));
+    }
+
+    /**
+     * Make sure the driver has a pending expiry. Cheap when already armed.
+     */
+    public void track(Long driverId, LocalDateTime lastSeen) {
+        if (armed.putIfAbsent(driverId, Boolean.TRUE) != null) return;
+        synchronized (queue) {
+            queue.add(new Expiry(toMillis(lastSeen) + ttlMs, driverId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.stale.sweep-interval-ms:5000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        List<DriverLocationIndex.TrackedDriver> expired = new ArrayList<>();
+
+        synchronized (queue) {
+            while (!queue.isEmpty() && queue.peek().deadlineMillis() <= now) {
+                Expiry due = queue.poll();
+                // Disarm before reading the index: a driver that reconnects after this
+                // point arms itself again in track(), one that reconnected before is seen below
+                armed.remove(due.driverId());
+                DriverLocationIndex.TrackedDriver driver = driverLocationIndex.get(due.driverId());
+                if (driver == null) continue; // went offline normally
+                long deadline = toMillis(driver.lastSeen()) + ttlMs;
+                if (deadline > now) {
+                    if (armed.putIfAbsent(due.driverId(), Boolean.TRUE) == null) {
+                        queue.add(new Expiry(deadline, due.driverId()));
+                    }
+                } else {
+                    expired.add(driver);
+                }
+            }
+        }
+
+        if (expired.isEmpty()) return;
+
+        LocalDateTime offlineAt = LocalDateTime.now();
+        int count = 0;
+        for (DriverLocationIndex.TrackedDriver driver : expired) {
+            if (!driverLocationIndex.removeIfUnchanged(driver)) {
+                // A location arrived during the sweep and wins; its track() may have run while
+                // the driver was still armed, so re-arm here
+                DriverLocationIndex.TrackedDriver current = driverLocationIndex.get(driver.driverId());
+                if (current != null) track(current.driverId(), current.lastSeen());
+                continue;
+            }
+            count++;
+            writeBehindBuffer.enqueue(new LocationWriteBehindBuffer.PendingLocation(
+                    driver.driverId(), null, null, null, null, null, false, driver.lastSeen()));
+            locationBroadcaster.publishOffline(driver.driverId(), driver.driverName(), offlineAt);
+        }
+        log.info("Expired {} stale drivers (no location for {} ms)", count, ttlMs);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        if (time == null) return 0L; // unknown lastSeen: expire on the next sweep
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,23 @@
+-- V33: Driver location history (trip traces)
+-- driver_locations only keeps the latest point per driver; this table keeps the full path.
+-- Points are packed into segments: fixed-point lat/lng (1e-6 deg) and time stored as
+-- zigzag/varint deltas, so one row holds a few hundred points in a few KB.
+-- A ride's path is the driver's points between accepted_at and completed/cancelled_at.
+
+CREATE TABLE IF NOT EXISTS driver_trace_segments (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    driver_id   BIGINT NOT NULL,
+
+    -- Epoch millis of the first and last point in the segment
+    start_time  BIGINT NOT NULL,
+    end_time    BIGINT NOT NULL,
+    point_count INT NOT NULL,
+
+    -- Delta-encoded points (see DriverTraceCodec)
+    payload     MEDIUMBLOB NOT NULL,
+
+    created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (driver_id) REFERENCES drivers(id) ON DELETE CASCADE,
+    INDEX idx_driver_time (driver_id, start_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,2 @@
+-- Optimistic locking for ride state transitions
+ALTER TABLE rides ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Keyset pagination of ride history: (owner, created_at, id) serves both the
+-- seek condition and the ORDER BY, and replaces the single-column owner indexes.
+CREATE INDEX idx_passenger_created ON rides (passenger_id, created_at, id);
+CREATE INDEX idx_driver_created ON rides (assigned_driver_id, created_at, id);
+DROP INDEX idx_passenger ON rides;
+DROP INDEX idx_driver ON rides;
+
+-- Pending bid count per ride
+CREATE INDEX idx_ride_status ON ride_bids (ride_id, status);
@@ -0,0 +1,51 @@
+-- V36: Driver earnings
+-- Append-only ledger (one row per completed ride) plus per-driver daily and weekly
+-- running totals, maintained in the ride-completion transaction.
+-- Earnings history must outlive the rides and drivers it refers to, so the foreign
+-- keys are RESTRICT: deleting a ride or driver fails while earnings rows point at it.
+
+CREATE TABLE IF NOT EXISTS driver_earnings_ledger (
+    id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    driver_id         BIGINT NOT NULL,
+    ride_id           BIGINT NOT NULL,
+    entry_type        VARCHAR(20) NOT NULL DEFAULT 'RIDE',
+    gross_amount      DECIMAL(10, 2) NOT NULL,
+    commission_amount DECIMAL(10, 2) NOT NULL,
+    net_amount        DECIMAL(10, 2) NOT NULL,
+    earned_at         DATETIME NOT NULL,
+    created_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_earnings_ledger_driver FOREIGN KEY (driver_id) REFERENCES drivers(id) ON DELETE RESTRICT,
+    CONSTRAINT fk_earnings_ledger_ride FOREIGN KEY (ride_id) REFERENCES rides(id) ON DELETE RESTRICT,
+    -- A ride is credited at most once
+    UNIQUE KEY uq_ledger_ride_type (ride_id, entry_type),
+    INDEX idx_driver_id_desc (driver_id, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS driver_earnings_daily (
+    driver_id         BIGINT NOT NULL,
+    day               DATE NOT NULL,
+    ride_count        INT NOT NULL DEFAULT 0,
+    gross_amount      DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    commission_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    net_amount        DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    updated_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (driver_id, day),
+    CONSTRAINT fk_earnings_daily_driver FOREIGN KEY (driver_id) REFERENCES drivers(id) ON DELETE RESTRICT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS driver_earnings_weekly (
+    driver_id         BIGINT NOT NULL,
+    week_start        DATE NOT NULL, -- Monday
+    ride_count        INT NOT NULL DEFAULT 0,
+    gross_amount      DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    commission_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    net_amount        DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
+    updated_at        TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (driver_id, week_start),
+    CONSTRAINT fk_earnings_weekly_driver FOREIGN KEY (driver_id) REFERENCES drivers(id) ON DELETE RESTRICT,
+    -- Payout runs read one week across all drivers
+    INDEX idx_week_start (week_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
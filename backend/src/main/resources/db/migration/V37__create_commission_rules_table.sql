@@ -0,0 +1,24 @@
+-- V37: Commission rules
+-- Every condition is optional (NULL = any). The highest-priority matching rule sets the rate;
+-- when none matches, commission.default-rate applies.
+
+CREATE TABLE IF NOT EXISTS commission_rules (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name         VARCHAR(100) NOT NULL,
+    rate_percent DECIMAL(5, 2) NOT NULL,
+    priority     INT NOT NULL DEFAULT 0,
+    is_active    BOOLEAN NOT NULL DEFAULT TRUE,
+
+    -- Conditions
+    vehicle_type VARCHAR(20),               -- CAR, BIKE, VAN, ANY
+    driver_tier  VARCHAR(20),               -- STANDARD, SILVER, GOLD, PLATINUM
+    start_hour   TINYINT,                   -- 0-23, inclusive
+    end_hour     TINYINT,                   -- 0-23, exclusive; may wrap past midnight
+    min_lat      DECIMAL(10, 8),            -- pickup zone (bounding box)
+    max_lat      DECIMAL(10, 8),
+    min_lng      DECIMAL(11, 8),
+    max_lng      DECIMAL(11, 8),
+
+    created_at   TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at   TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,8 @@
+-- Listing search emits only the predicates supplied, always led by status.
+-- (status, make, model, year) serves make / make+model / +year range filters,
+-- (status, price) price ranges and price sorts, (status, created_at) the default
+-- newest-first listing. They replace the single-column status index.
+CREATE INDEX idx_status_make_model_year ON vehicles (status, make, model, year);
+CREATE INDEX idx_status_price ON vehicles (status, price);
+CREATE INDEX idx_status_created ON vehicles (status, created_at);
+DROP INDEX idx_status ON vehicles;
@@ -0,0 +1,20 @@
+-- V39: Keep the number a listing slug was suffixed with in its own column.
+-- The allocator used to parse it back out of the slug, which read any title ending in a
+-- number as a suffix ("toyota-corolla-2020" as suffix 2020 of "toyota-corolla").
+-- slug_base is the title's slug, slug_suffix the number appended to it (0 = none).
+-- Existing rows are filled in by the application on startup (SlugSeeder), which can
+-- compare each slug with its own title; until then a NULL base matches no allocation.
+
+ALTER TABLE vehicles
+    ADD COLUMN slug_base VARCHAR(255) NULL AFTER slug,
+    ADD COLUMN slug_suffix BIGINT NOT NULL DEFAULT 0 AFTER slug_base;
+
+CREATE INDEX idx_vehicles_slug_base_suffix ON vehicles (slug_base, slug_suffix);
+
+-- V9 left the slug's unique key unnamed, and created it twice (ADD COLUMN ... UNIQUE,
+-- then MODIFY COLUMN ... UNIQUE), as slug and slug_2. Replace both with one named key,
+-- so a duplicate slug can be told apart from other violations by its constraint name.
+ALTER TABLE vehicles
+    ADD CONSTRAINT uk_vehicles_slug UNIQUE (slug),
+    DROP INDEX slug,
+    DROP INDEX slug_2;
@@ -0,0 +1,131 @@
+package com.marketplace.commission.service;
+
+import com.marketplace.commission.entity.CommissionRule;
+import com.marketplace.commission.entity.DriverTier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of {@link CommissionRuleSet#evaluate} for 10, 100 and 1000 active rules, on
+ * one thread and on every core at once. A timed loop stands in for JMH, which is not a
+ * dependency: each case is warmed up, then measured over {@code benchmark.iterations}
+ * one-second runs, and every result feeds a checksum so the JIT cannot drop the calls.
+ *
+ * Run with {@code mvn test -Pbenchmark -Dtest=CommissionRuleSetBenchmark}.
+ */
+@Tag("benchmark")
+class CommissionRuleSetBenchmark {
+
+    private static final int[] RULE_COUNTS = {10, 100, 1000};
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final long RUN_NANOS = 1_000_000_000L;
+    private static final String[] VEHICLE_TYPES = {"CAR", "BIKE", "VAN", "RICKSHAW", "ANY"};
+    private static final BigDecimal DEFAULT_RATE = new BigDecimal("15.00");
+
+    /** One evaluation's inputs; a fixed pool is cycled so generating them is not measured */
+    private record Query(String vehicleType, DriverTier tier, int hour, double lat, double lng) {
+    }
+
+    @Test
+    void evaluationThroughputByRuleCount() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%n%-6s %16s %22s%n", "rules", "1 thread ops/s", threads + " threads ops/s");
+        for (int ruleCount : RULE_COUNTS) {
+            Random random = new Random(ruleCount);
+            CommissionRuleSet rules = CommissionRuleSet.compile(rules(ruleCount, random), DEFAULT_RATE);
+            Query[] queries = new Query[4096];
+            for (int i = 0; i < queries.length; i++) {
+                queries[i] = new Query(VEHICLE_TYPES[random.nextInt(VEHICLE_TYPES.length)],
+                        DriverTier.values()[random.nextInt(DriverTier.values().length)], random.nextInt(24),
+                        31.3 + random.nextDouble() * 0.5, 74.1 + random.nextDouble() * 0.5);
+            }
+
+            run(rules, queries, 1, 3); // warm-up
+            double single = run(rules, queries, 1, ITERATIONS);
+            double parallel = run(rules, queries, threads, ITERATIONS);
+            System.out.printf("%-6d %16.0f %22.0f%n", ruleCount, single, parallel);
+        }
+    }
+
+    /** Mean evaluations per second over {@code iterations} runs of {@code threads} threads */
+    private static double run(CommissionRuleSet rules, Query[] queries, int threads, int iterations) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            double total = 0;
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int offset = t * 97;
+                    futures.add(pool.submit(() -> evaluateFor(rules, queries, offset)));
+                }
+                long ops = 0;
+                long checksum = 0;
+                for (Future<long[]> future : futures) {
+                    long[] result = future.get();
+                    ops += result[0];
+                    checksum += result[1];
+                }
+                assertThat(checksum).isNotZero();
+                total += ops / (RUN_NANOS / 1e9);
+            }
+            return total / iterations;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** {evaluations, checksum} after one run */
+    private static long[] evaluateFor(CommissionRuleSet rules, Query[] queries, int offset) {
+        long ops = 0;
+        long checksum = 0;
+        long end = System.nanoTime() + RUN_NANOS;
+        int mask = queries.length - 1;
+        int i = offset;
+        do {
+            // Check the clock once per 1024 evaluations
+            for (int k = 0; k < 1024; k++, i++) {
+                Query q = queries[i & mask];
+                CommissionRuleSet.Match match = rules.evaluate(q.vehicleType(), q.tier(), q.hour(), q.lat(), q.lng());
+                checksum += match.ruleId() != null ? match.ruleId() : 1;
+            }
+            ops += 1024;
+        } while (System.nanoTime() < end);
+        return new long[]{ops, checksum};
+    }
+
+    /** A mix of vehicle, tier, time-window and zone rules, about half of them zoned */
+    private static List<CommissionRule> rules(int count, Random random) {
+        List<CommissionRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CommissionRule.CommissionRuleBuilder rule = CommissionRule.builder()
+                    .id((long) i + 1)
+                    .name("rule " + i)
+                    .ratePercent(BigDecimal.valueOf(5 + random.nextInt(20)))
+                    .priority(random.nextInt(10));
+            if (random.nextInt(3) > 0) rule.vehicleType(VEHICLE_TYPES[random.nextInt(VEHICLE_TYPES.length - 1)]);
+            if (random.nextBoolean()) rule.driverTier(DriverTier.values()[random.nextInt(DriverTier.values().length)]);
+            if (random.nextBoolean()) {
+                int start = random.nextInt(24);
+                rule.startHour(start).endHour((start + 1 + random.nextInt(8)) % 24);
+            }
+            if (random.nextBoolean()) {
+                double lat = 31.3 + random.nextDouble() * 0.45;
+                double lng = 74.1 + random.nextDouble() * 0.45;
+                rule.minLat(BigDecimal.valueOf(lat)).maxLat(BigDecimal.valueOf(lat + 0.05))
+                        .minLng(BigDecimal.valueOf(lng)).maxLng(BigDecimal.valueOf(lng + 0.05));
+            }
+            rules.add(rule.build());
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,50 @@
+package com.marketplace.common.util;
+
+import java.util.Arrays;
+
+/**
+ * Latency samples of one benchmark case, in nanoseconds, summarised as percentiles in
+ * milliseconds. Not thread-safe; record from the measuring thread.
+ */
+public class LatencySamples {
+
+    private long[] nanos = new long[64];
+    private int count;
+
+    public void record(long elapsedNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+    }
+
+    /** Time {@code action} and record it */
+    public void time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        record(System.nanoTime() - start);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** Nearest-rank percentile in milliseconds, {@code p} in (0, 100] */
+    public double percentileMillis(double p) {
+        if (count == 0) return Double.NaN;
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    /** "p50 / p95 / p99 / max" in milliseconds */
+    public String summary() {
+        return String.format("%8.2f %8.2f %8.2f %8.2f",
+                percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100));
+    }
+
+    public static String summaryHeader() {
+        return String.format("%8s %8s %8s %8s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+    }
+}
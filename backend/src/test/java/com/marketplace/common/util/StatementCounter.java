@@ -0,0 +1,36 @@
+package com.marketplace.common.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares, per thread, so query-count assertions are
+ * not thrown off by schedulers running in the same context, and keeps the first one so its
+ * plan can be inspected. Registered in application-test.properties.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<String[]> FIRST = ThreadLocal.withInitial(() -> new String[1]);
+
+    @Override
+    public String inspect(String sql) {
+        if (COUNT.get()[0]++ == 0) {
+            FIRST.get()[0] = sql;
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+        FIRST.get()[0] = null;
+    }
+
+    public static int count() {
+        return COUNT.get()[0];
+    }
+
+    /** The first statement prepared since the last reset, or null */
+    public static String firstStatement() {
+        return FIRST.get()[0];
+    }
+}
@@ -0,0 +1,134 @@
+package com.marketplace.listing.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.util.StatementCounter;
+import com.marketplace.listing.dto.ListingDTO;
+import com.marketplace.listing.entity.Listing;
+import com.marketplace.listing.entity.ListingImage;
+import com.marketplace.listing.repository.ListingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A page of listing responses costs three statements however many rows it has: the page
+ * itself, all of its images and all of its owners. Lazy loads per row would show up here.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListingQueryCountTest {
+
+    private static final int ROWS = 6;
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String make;
+    private Long ownerId;
+
+    @BeforeEach
+    void seed() {
+        make = "Make" + SEQ.incrementAndGet();
+        for (int i = 0; i < ROWS; i++) {
+            // A different owner per row, so per-row owner loads would be visible
+            User owner = newUser();
+            ownerId = owner.getId();
+            Listing listing = Listing.builder()
+                    .title("Query count sedan " + make + " " + i)
+                    .slug(make.toLowerCase() + "-" + i)
+                    .price(new BigDecimal("10000.00"))
+                    .make(make)
+                    .model("Model")
+                    .year(2020)
+                    .location("Lahore")
+                    .listingType("SALE")
+                    .status("APPROVED")
+                    .owner(owner)
+                    .build();
+            listing.getImages().add(ListingImage.builder().imageUrl("/img/" + make + "-" + i + "-a.jpg").listing(listing).build());
+            listing.getImages().add(ListingImage.builder().imageUrl("/img/" + make + "-" + i + "-b.jpg").listing(listing).build());
+            listing = listingRepository.save(listing);
+            listingSearchIndex.put(ListingSearchIndex.ListingDocument.of(listing));
+        }
+    }
+
+    @Test
+    void filteredSearchPageRunsThreeStatements() {
+        ListingDTO.ListingSearchRequest request = ListingDTO.ListingSearchRequest.builder()
+                .make(make)
+                .size(ROWS + 1) // one short page, so no count query
+                .build();
+
+        StatementCounter.reset();
+        Page<ListingDTO.ListingResponse> page = listingService.searchListings(request);
+
+        assertThat(page.getContent()).hasSize(ROWS).allSatisfy(this::assertAssembled);
+        assertThat(StatementCounter.count()).isEqualTo(3);
+    }
+
+    @Test
+    void keywordSearchPageRunsThreeStatements() {
+        ListingDTO.ListingSearchRequest request = ListingDTO.ListingSearchRequest.builder()
+                .q(make)
+                .size(ROWS)
+                .build();
+
+        StatementCounter.reset();
+        Page<ListingDTO.ListingResponse> page = listingService.searchListings(request);
+
+        assertThat(page.getContent()).hasSize(ROWS).allSatisfy(this::assertAssembled);
+        assertThat(StatementCounter.count()).isEqualTo(3);
+    }
+
+    @Test
+    void ownerListingsRunThreeStatements() {
+        User owner = userRepository.findById(ownerId).orElseThrow();
+        for (int i = 0; i < ROWS; i++) {
+            Listing listing = listingRepository.findBySlug(make.toLowerCase() + "-" + i).orElseThrow();
+            listing.setOwner(owner);
+            listingRepository.save(listing);
+        }
+
+        StatementCounter.reset();
+        List<ListingDTO.ListingResponse> listings = listingService.getOwnerListings(ownerId);
+
+        assertThat(listings).hasSize(ROWS).allSatisfy(this::assertAssembled);
+        assertThat(StatementCounter.count()).isEqualTo(3);
+    }
+
+    private void assertAssembled(ListingDTO.ListingResponse response) {
+        assertThat(response.getOwner().getEmail()).isNotBlank();
+        assertThat(response.getImages()).hasSize(2);
+    }
+
+    private User newUser() {
+        int n = SEQ.incrementAndGet();
+        return userRepository.save(User.builder()
+                .email("owner" + n + "@test.local")
+                .phone("+1666" + String.format("%07d", n))
+                .password("x")
+                .firstName("Owner")
+                .lastName("N" + n)
+                .build());
+    }
+}
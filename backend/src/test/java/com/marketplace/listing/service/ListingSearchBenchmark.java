@@ -0,0 +1,159 @@
+package com.marketplace.listing.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.constants.Constants;
+import com.marketplace.common.util.LatencySamples;
+import com.marketplace.listing.dto.ListingDTO;
+import com.marketplace.listing.entity.Listing;
+import com.marketplace.listing.repository.ListingRepository;
+import com.marketplace.listing.repository.ListingSpecifications;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search latency of {@link ListingSearchIndex} against the SQL path ListingService takes
+ * when there are no keywords, over {@code benchmark.listings} seeded listings (default
+ * 1,000,000). Both sides produce the first page of 20 listings and the total: the index
+ * as ids ("index") and then the rows loaded by primary key ("+rows"), SQL as the page
+ * query plus its count. Keyword queries have no SQL counterpart. H2 keeps the rows on the
+ * heap, hence the profile's -Xmx.
+ *
+ * Run with {@code mvn test -Pbenchmark -Dtest=ListingSearchBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = SeededListings.DATASOURCE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingSearchBenchmark {
+
+    private static final int LISTINGS = Integer.getInteger("benchmark.listings", 1_000_000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 50);
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final Sort NEWEST_FIRST = Sort.by("createdAt").descending().and(Sort.by("id").descending());
+
+    /** One query; keyword queries run against the index only */
+    private record Case(String name, ListingDTO.ListingSearchRequest request) {
+
+        boolean keyword() {
+            return request.getQ() != null;
+        }
+    }
+
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userRepository.save(User.builder()
+                .email("search-benchmark@test.local")
+                .phone("+15550001800")
+                .password("x")
+                .firstName("Search")
+                .lastName("Benchmark")
+                .build()).getId();
+        long start = System.nanoTime();
+        SeededListings.insert(jdbcTemplate, ownerId, LISTINGS);
+        long inserted = System.nanoTime();
+        listingSearchIndex.rebuild();
+        System.out.printf("%nSeeded %d listings in %.1f s, index rebuilt in %.1f s%n",
+                LISTINGS, (inserted - start) / 1e9, (System.nanoTime() - inserted) / 1e9);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        SeededListings.delete(jdbcTemplate, ownerId);
+        userRepository.deleteById(ownerId);
+        listingSearchIndex.rebuild();
+    }
+
+    @Test
+    void indexAgainstSqlByQuery() {
+        System.out.printf("%n%-32s %-6s %9s %s%n", "query", "path", "matches", LatencySamples.summaryHeader());
+        for (Case c : cases()) {
+            LatencySamples index = new LatencySamples();
+            LatencySamples withRows = new LatencySamples();
+            LatencySamples sql = new LatencySamples();
+            long indexTotal = 0;
+            long sqlTotal = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                long start = System.nanoTime();
+                ListingSearchIndex.SearchHits hits = listingSearchIndex.search(c.request(), 0, PAGE_SIZE);
+                long searched = System.nanoTime();
+                List<Listing> rows = listingRepository.findAllById(hits.ids());
+                long loaded = System.nanoTime();
+                assertThat(rows).hasSameSizeAs(hits.ids());
+                indexTotal = hits.total();
+                if (round >= WARMUP_ROUNDS) {
+                    index.record(searched - start);
+                    withRows.record(loaded - start);
+                }
+
+                if (!c.keyword()) {
+                    start = System.nanoTime();
+                    Page<Listing> page = listingRepository.findAll(ListingSpecifications.forSearch(c.request()),
+                            PageRequest.of(0, PAGE_SIZE, NEWEST_FIRST));
+                    long queried = System.nanoTime();
+                    sqlTotal = page.getTotalElements();
+                    if (round >= WARMUP_ROUNDS) sql.record(queried - start);
+                }
+            }
+            System.out.printf("%-32s %-6s %9d %s%n", c.name(), "index", indexTotal, index.summary());
+            System.out.printf("%-32s %-6s %9s %s%n", "", "+rows", "", withRows.summary());
+            if (!c.keyword()) {
+                System.out.printf("%-32s %-6s %9d %s%n", "", "sql", sqlTotal, sql.summary());
+                assertThat(indexTotal).as(c.name()).isEqualTo(sqlTotal);
+            }
+        }
+    }
+
+    private static List<Case> cases() {
+        return List.of(
+                new Case("q=corolla", search().q("corolla").build()),
+                new Case("q=corolla sunroof", search().q("corolla sunroof").build()),
+                new Case("q=leather navigation, Lahore", search().q("leather navigation").location("Lahore").build()),
+                new Case("q=civic, price 20k-40k", search().q("civic")
+                        .minPrice(new BigDecimal("20000")).maxPrice(new BigDecimal("40000")).build()),
+                new Case("make", search().make("Honda").build()),
+                new Case("make + model", search().make("Toyota").model("Corolla").build()),
+                new Case("make + model + years", search().make("Toyota").model("Corolla")
+                        .minYear(2015).maxYear(2020).build()),
+                new Case("price 20k-25k", search().minPrice(new BigDecimal("20000"))
+                        .maxPrice(new BigDecimal("25000")).build()),
+                new Case("location Lahore", search().location("Lahore").build()),
+                new Case("make + location + type", search().make("Suzuki").location("Karachi")
+                        .listingType(Constants.LISTING_TYPE_RENT).build()));
+    }
+
+    /** Approved listings, as ListingService defaults the status */
+    private static ListingDTO.ListingSearchRequest.ListingSearchRequestBuilder search() {
+        return ListingDTO.ListingSearchRequest.builder().status(Constants.LISTING_STATUS_APPROVED);
+    }
+}
@@ -0,0 +1,183 @@
+package com.marketplace.listing.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.constants.Constants;
+import com.marketplace.common.util.LatencySamples;
+import com.marketplace.common.util.StatementCounter;
+import com.marketplace.listing.dto.ListingDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan and latency of {@link ListingService#searchListings} per filter combination over
+ * {@code benchmark.listings} seeded listings (default 1,000,000), first with the entity
+ * schema alone and then with the composite indexes of V38, created here from the
+ * migration itself since the test schema comes from the entities. The plan is H2's
+ * EXPLAIN of the page query Hibernate generated, cut down to its comments: the index
+ * read with its condition, and "index sorted" when that index also yields the order.
+ *
+ * Run with {@code mvn test -Pbenchmark -Dtest=ListingSearchPlanBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = SeededListings.DATASOURCE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingSearchPlanBenchmark {
+
+    private static final int LISTINGS = Integer.getInteger("benchmark.listings", 1_000_000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 20);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int PAGE_SIZE = 20;
+    private static final String MIGRATION = "db/migration/V38__add_listing_search_indexes.sql";
+    private static final Pattern CREATE_INDEX = Pattern.compile("CREATE INDEX (\\w+) ON vehicles \\([^)]*\\)");
+    private static final Pattern PLAN_COMMENT = Pattern.compile("/\\*\\s*(.*?)\\s*\\*/", Pattern.DOTALL);
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private final List<String> indexes = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        ownerId = userRepository.save(User.builder()
+                .email("plan-benchmark@test.local")
+                .phone("+15550002000")
+                .password("x")
+                .firstName("Plan")
+                .lastName("Benchmark")
+                .build()).getId();
+        SeededListings.insert(jdbcTemplate, ownerId, LISTINGS);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        indexes.forEach(name -> jdbcTemplate.execute("DROP INDEX IF EXISTS " + name));
+        SeededListings.delete(jdbcTemplate, ownerId);
+        userRepository.deleteById(ownerId);
+    }
+
+    @Test
+    void planAndLatencyByFilterCombination() throws IOException {
+        System.out.printf("%n%d listings, without the V38 indexes%n", LISTINGS);
+        measure();
+
+        String migration = new ClassPathResource(MIGRATION).getContentAsString(StandardCharsets.UTF_8);
+        Matcher ddl = CREATE_INDEX.matcher(migration);
+        while (ddl.find()) {
+            jdbcTemplate.execute(ddl.group());
+            indexes.add(ddl.group(1));
+        }
+        assertThat(indexes).isNotEmpty();
+        jdbcTemplate.execute("ANALYZE");
+
+        System.out.printf("%n%d listings, with %s%n", LISTINGS, String.join(", ", indexes));
+        measure();
+    }
+
+    private void measure() {
+        System.out.printf("%-30s %9s %s%n", "filter", "matches", LatencySamples.summaryHeader());
+        for (Case c : cases()) {
+            LatencySamples samples = new LatencySamples();
+            long total = 0;
+            String pageQuery = null;
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                StatementCounter.reset();
+                long start = System.nanoTime();
+                total = listingService.searchListings(c.request()).getTotalElements();
+                long elapsed = System.nanoTime() - start;
+                pageQuery = StatementCounter.firstStatement();
+                if (round >= WARMUP_ROUNDS) samples.record(elapsed);
+            }
+            System.out.printf("%-30s %9d %s%n", c.name(), total, samples.summary());
+            System.out.printf("  plan: %s%n", plan(pageQuery, c.parameters()));
+        }
+    }
+
+    /** The comments of H2's plan for {@code sql}; parameters past the filters are the page bounds */
+    private String plan(String sql, List<Object> parameters) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql);
+            int count = explain.getParameterMetaData().getParameterCount();
+            for (int i = 0; i < count; i++) {
+                explain.setObject(i + 1, i < parameters.size() ? parameters.get(i) : PAGE_SIZE);
+            }
+            return explain;
+        }, (ResultSet rs) -> {
+            rs.next();
+            Matcher comment = PLAN_COMMENT.matcher(rs.getString(1));
+            List<String> comments = new ArrayList<>();
+            while (comment.find()) {
+                comments.add(comment.group(1).replaceAll("\\s+", " "));
+            }
+            return comments.stream().collect(Collectors.joining(" | "));
+        });
+    }
+
+    /** One filter combination over approved listings */
+    private record Case(String name, ListingDTO.ListingSearchRequest request) {
+
+        /** The filter values in the order ListingSpecifications.forSearch binds them */
+        List<Object> parameters() {
+            List<Object> values = new ArrayList<>();
+            values.add(request.getStatus());
+            if (request.getMake() != null) values.add(request.getMake());
+            if (request.getModel() != null) values.add(request.getModel());
+            if (request.getMinYear() != null) values.add(request.getMinYear());
+            if (request.getMaxYear() != null) values.add(request.getMaxYear());
+            if (request.getMinPrice() != null) values.add(request.getMinPrice());
+            if (request.getMaxPrice() != null) values.add(request.getMaxPrice());
+            if (request.getListingType() != null) values.add(request.getListingType());
+            if (request.getLocation() != null) values.add("%" + request.getLocation() + "%");
+            return values;
+        }
+    }
+
+    private static List<Case> cases() {
+        return List.of(
+                new Case("status, newest first", search().build()),
+                new Case("+ make", search().make("Honda").build()),
+                new Case("+ make + model + years", search().make("Toyota").model("Corolla")
+                        .minYear(2015).maxYear(2020).build()),
+                new Case("+ price range", search().minPrice(new BigDecimal("20000"))
+                        .maxPrice(new BigDecimal("25000")).build()),
+                new Case("status, cheapest first", search().sortBy("price").sortOrder("asc").build()),
+                new Case("+ make, cheapest first", search().make("Honda").sortBy("price").sortOrder("asc").build()),
+                new Case("+ location", search().location("Lahore").build()));
+    }
+
+    private static ListingDTO.ListingSearchRequest.ListingSearchRequestBuilder search() {
+        return ListingDTO.ListingSearchRequest.builder()
+                .status(Constants.LISTING_STATUS_APPROVED)
+                .size(PAGE_SIZE);
+    }
+}
@@ -0,0 +1,116 @@
+package com.marketplace.listing.service;
+
+import com.marketplace.common.constants.Constants;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic listings for the search benchmarks, inserted straight into vehicles in JDBC
+ * batches rather than through the entities. Makes, models, years, prices, cities and
+ * features come from small fixed pools, so every filter combination has matches, and a
+ * fixed seed keeps runs comparable.
+ */
+final class SeededListings {
+
+    /**
+     * A database of their own, so the rows never meet the other tests' contexts, and without
+     * H2's reuse of results for a repeated query on unchanged tables, which would answer every
+     * round after the first from memory.
+     */
+    static final String DATASOURCE = "spring.datasource.url=jdbc:h2:mem:search-benchmark;MODE=MySQL;"
+            + "DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;"
+            + "NON_KEYWORDS=YEAR,MONTH,DAY,HOUR,MINUTE,VALUE,KEY;OPTIMIZE_REUSE_RESULTS=FALSE";
+
+    /** Each make followed by its models */
+    static final String[][] MAKES_AND_MODELS = {
+            {"Toyota", "Corolla", "Camry", "Yaris", "Hilux", "Prado"},
+            {"Honda", "Civic", "City", "Accord", "Vezel"},
+            {"Suzuki", "Alto", "Cultus", "Swift", "Mehran", "Wagon R"},
+            {"Hyundai", "Elantra", "Tucson", "Sonata"},
+            {"Kia", "Sportage", "Picanto", "Sorento"},
+            {"Nissan", "Sunny", "Dayz", "X-Trail"},
+            {"Mercedes", "C-Class", "E-Class"},
+            {"BMW", "3 Series", "5 Series", "X5"},
+    };
+    static final String[] CITIES = {"Lahore, Punjab", "Karachi, Sindh", "Islamabad", "Rawalpindi, Punjab",
+            "Faisalabad, Punjab", "Multan, Punjab", "Peshawar, KP", "Quetta, Balochistan"};
+    static final String[] FEATURES = {"sunroof", "leather seats", "navigation", "alloy rims", "cruise control",
+            "parking sensors", "push start", "climate control"};
+
+    private static final String[] CONDITIONS = {"excellent condition", "first owner", "low mileage",
+            "family used", "genuine paint", "urgent sale"};
+    private static final String[] FUEL_TYPES = {"Petrol", "Diesel", "Hybrid", "Electric"};
+    private static final String[] TRANSMISSIONS = {"Manual", "Automatic"};
+    private static final String[] COLORS = {"White", "Black", "Silver", "Grey", "Red", "Blue"};
+    private static final int FIRST_YEAR = 1995;
+    private static final int YEARS = 30;
+    private static final int BATCH = 5000;
+    private static final String INSERT = "INSERT INTO vehicles (title, slug, slug_base, slug_suffix, description, "
+            + "price, make, model, year, mileage, location, listing_type, status, is_featured, boost_level, "
+            + "fuel_type, transmission, color, features, owner_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, 0, ?, ?, ?, ?, ?, ?, ?)";
+
+    private SeededListings() {
+    }
+
+    /** Inserts {@code count} listings owned by {@code ownerId}; 80% approved, the rest pending or rejected */
+    static void insert(JdbcTemplate jdbcTemplate, long ownerId, int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < count; i++) {
+            String[] makeAndModels = MAKES_AND_MODELS[random.nextInt(MAKES_AND_MODELS.length)];
+            String make = makeAndModels[0];
+            String model = makeAndModels[1 + random.nextInt(makeAndModels.length - 1)];
+            int year = FIRST_YEAR + random.nextInt(YEARS);
+            Integer mileage = random.nextInt(20) == 0 ? null : random.nextInt(250_000);
+            String city = CITIES[random.nextInt(CITIES.length)];
+            String title = year + " " + make + " " + model + " " + CONDITIONS[random.nextInt(CONDITIONS.length)];
+            String slug = "seeded-" + ownerId + "-" + i;
+            int status = random.nextInt(10);
+            LocalDateTime createdAt = now.minusMinutes(random.nextInt(2 * 365 * 24 * 60));
+
+            rows.add(new Object[]{
+                    title, slug, slug,
+                    "Well maintained " + model + ", " + (mileage != null ? mileage + " km" : "mileage unknown")
+                            + ", registered in " + city.split(",")[0] + ".",
+                    BigDecimal.valueOf(2_000 + random.nextInt(1_480) * 100L, 0),
+                    make, model, year, mileage, city,
+                    random.nextInt(5) == 0 ? Constants.LISTING_TYPE_RENT : Constants.LISTING_TYPE_SELL,
+                    status < 8 ? Constants.LISTING_STATUS_APPROVED
+                            : status == 8 ? Constants.LISTING_STATUS_PENDING : Constants.LISTING_STATUS_REJECTED,
+                    FUEL_TYPES[random.nextInt(FUEL_TYPES.length)],
+                    TRANSMISSIONS[random.nextInt(TRANSMISSIONS.length)],
+                    COLORS[random.nextInt(COLORS.length)],
+                    features(random), ownerId, createdAt, createdAt});
+            if (rows.size() == BATCH) {
+                jdbcTemplate.batchUpdate(INSERT, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+    }
+
+    static void delete(JdbcTemplate jdbcTemplate, long ownerId) {
+        jdbcTemplate.update("DELETE FROM vehicles WHERE owner_id = ?", ownerId);
+    }
+
+    /** Up to three distinct features, comma separated */
+    private static String features(Random random) {
+        StringBuilder features = new StringBuilder();
+        int first = random.nextInt(FEATURES.length);
+        int count = random.nextInt(4);
+        for (int k = 0; k < count; k++) {
+            if (k > 0) features.append(", ");
+            features.append(FEATURES[(first + k * 3) % FEATURES.length]);
+        }
+        return features.toString();
+    }
+}
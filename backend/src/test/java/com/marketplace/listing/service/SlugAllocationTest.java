@@ -0,0 +1,172 @@
+package com.marketplace.listing.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.util.StatementCounter;
+import com.marketplace.listing.dto.ListingDTO;
+import com.marketplace.listing.entity.Listing;
+import com.marketplace.listing.repository.ListingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Slugs for listings with the same title: all distinct under heavy concurrency, and
+ * numbered by their own counter, never by numbers that happen to end other titles.
+ * Only a clash on the slug's unique key is retried.
+ *
+ * Runs on H2's default mode: in MySQL mode H2 2.2 can hand out one identity value to two
+ * concurrent inserts, which would fail the parallel test on the primary key, not the slug.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:slugs;DATABASE_TO_LOWER=TRUE;"
+        + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;NON_KEYWORDS=YEAR,MONTH,DAY,HOUR,MINUTE,VALUE,KEY")
+class SlugAllocationTest {
+
+    private static final int PARALLEL_CREATES = 1000;
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private ListingService listingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ListingRepository listingRepository;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void owner() {
+        int n = SEQ.incrementAndGet();
+        ownerId = userRepository.save(User.builder()
+                .email("slugs" + n + "@test.local")
+                .phone("+1777" + String.format("%07d", n))
+                .password("x")
+                .firstName("Slug")
+                .lastName("Owner" + n)
+                .build()).getId();
+    }
+
+    @Test
+    void parallelCreatesWithOneTitleGetDistinctSlugs() throws Exception {
+        String title = "Parallel Civic " + SEQ.incrementAndGet();
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < PARALLEL_CREATES; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return listingService.createListing(request(title), ownerId).getSlug();
+                }));
+            }
+            start.countDown();
+
+            Set<String> slugs = new HashSet<>();
+            for (Future<String> future : futures) {
+                slugs.add(future.get(60, TimeUnit.SECONDS));
+            }
+            assertThat(slugs).hasSize(PARALLEL_CREATES);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void titleEndingInANumberIsNotASuffix() {
+        String model = "Corolla" + SEQ.incrementAndGet();
+        String base = "toyota-" + model.toLowerCase();
+
+        assertThat(listingService.createListing(request("Toyota " + model + " 2020"), ownerId).getSlug())
+                .isEqualTo(base + "-2020");
+        assertThat(listingService.createListing(request("Toyota " + model), ownerId).getSlug())
+                .isEqualTo(base);
+        assertThat(listingService.createListing(request("Toyota " + model), ownerId).getSlug())
+                .isEqualTo(base + "-1");
+    }
+
+    @Test
+    void suffixesBeyondIntRangeDoNotOverflow() {
+        String title = "Car " + SEQ.incrementAndGet() + " 3000000000";
+        String base = title.toLowerCase().replace(' ', '-');
+
+        assertThat(listingService.createListing(request(title), ownerId).getSlug()).isEqualTo(base);
+        assertThat(listingService.createListing(request(title), ownerId).getSlug()).isEqualTo(base + "-1");
+    }
+
+    @Test
+    void otherViolationsAreNotRetried() {
+        ListingDTO.CreateListingRequest succeeds = request("One Attempt " + SEQ.incrementAndGet());
+        StatementCounter.reset();
+        listingService.createListing(succeeds, ownerId);
+        int oneAttempt = StatementCounter.count();
+
+        // make is NOT NULL: an integrity violation, but not on the slug key
+        ListingDTO.CreateListingRequest fails = request("Missing Make " + SEQ.incrementAndGet());
+        fails.setMake(null);
+        StatementCounter.reset();
+        assertThatThrownBy(() -> listingService.createListing(fails, ownerId))
+                .isInstanceOfSatisfying(DataIntegrityViolationException.class,
+                        ex -> assertThat(SlugAllocator.isSlugConflict(ex)).isFalse());
+        assertThat(StatementCounter.count()).isEqualTo(oneAttempt);
+    }
+
+    @Test
+    void slugKeyViolationIsRecognised() {
+        String slug = "taken-" + SEQ.incrementAndGet();
+        listingRepository.saveAndFlush(listing(slug));
+
+        assertThatThrownBy(() -> listingRepository.saveAndFlush(listing(slug)))
+                .isInstanceOfSatisfying(DataIntegrityViolationException.class,
+                        ex -> assertThat(SlugAllocator.isSlugConflict(ex)).isTrue());
+    }
+
+    private Listing listing(String slug) {
+        return Listing.builder()
+                .title("Taken")
+                .slug(slug)
+                .price(new BigDecimal("15000.00"))
+                .make("Toyota")
+                .model("Corolla")
+                .year(2020)
+                .location("Lahore")
+                .listingType("SALE")
+                .status("PENDING")
+                .owner(userRepository.getReferenceById(ownerId))
+                .build();
+    }
+
+    private static ListingDTO.CreateListingRequest request(String title) {
+        return ListingDTO.CreateListingRequest.builder()
+                .title(title)
+                .price(new BigDecimal("15000.00"))
+                .make("Toyota")
+                .model("Corolla")
+                .year(2020)
+                .location("Lahore")
+                .listingType("SALE")
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.util.LatencySamples;
+import com.marketplace.common.util.StatementCounter;
+import com.marketplace.rental.entity.Driver;
+import com.marketplace.rental.repository.DriverRepository;
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideBid;
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.repository.RideBidRepository;
+import com.marketplace.ride.repository.RideRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of {@link RideService#acceptBid} on rides with 5, 50 and 500 pending bids, and
+ * the statements it runs; the other bids are rejected in one UPDATE, so the count should
+ * not grow with the number of bids. Bidding drivers are shared between rides.
+ *
+ * Run with {@code mvn test -Pbenchmark -Dtest=AcceptBidBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AcceptBidBenchmark {
+
+    private static final int[] BID_COUNTS = {5, 50, 500};
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 30);
+    private static final int WARMUP_ROUNDS = 5;
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private RideBidRepository rideBidRepository;
+
+    private final List<Driver> drivers = new ArrayList<>();
+
+    @BeforeAll
+    void bidders() {
+        for (int i = 0; i < BID_COUNTS[BID_COUNTS.length - 1]; i++) {
+            User user = newUser();
+            drivers.add(driverRepository.save(Driver.builder()
+                    .user(user)
+                    .licenseNumber("LIC-" + user.getId())
+                    .isAvailable(true)
+                    .vehicleTypes("CAR")
+                    .build()));
+        }
+    }
+
+    @Test
+    void acceptLatencyByBidCount() {
+        System.out.printf("%n%-6s %10s %s%n", "bids", "statements", LatencySamples.summaryHeader());
+        for (int bids : BID_COUNTS) {
+            LatencySamples samples = new LatencySamples();
+            int statements = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                User passenger = newUser();
+                Ride ride = newBiddingRide(passenger);
+                List<RideBid> placed = new ArrayList<>(bids);
+                for (int i = 0; i < bids; i++) {
+                    placed.add(RideBid.builder()
+                            .ride(ride)
+                            .driver(drivers.get(i))
+                            .bidAmount(new BigDecimal(10 + i % 20))
+                            .build());
+                }
+                RideBid chosen = rideBidRepository.saveAll(placed).get(bids / 2);
+
+                StatementCounter.reset();
+                long start = System.nanoTime();
+                rideService.acceptBid(ride.getId(), chosen.getId(), passenger.getId());
+                long elapsed = System.nanoTime() - start;
+                if (round >= WARMUP_ROUNDS) {
+                    samples.record(elapsed);
+                    statements = StatementCounter.count();
+                }
+                assertThat(rideRepository.findById(ride.getId()).orElseThrow().getStatus())
+                        .isEqualTo(RideStatus.ACCEPTED);
+            }
+            System.out.printf("%-6d %10d %s%n", bids, statements, samples.summary());
+        }
+    }
+
+    private Ride newBiddingRide(User passenger) {
+        return rideRepository.save(Ride.builder()
+                .passenger(passenger)
+                .pickupAddress("A")
+                .pickupLat(new BigDecimal("40.71280000"))
+                .pickupLng(new BigDecimal("-74.00600000"))
+                .dropoffAddress("B")
+                .dropoffLat(new BigDecimal("40.73060000"))
+                .dropoffLng(new BigDecimal("-73.93520000"))
+                .status(RideStatus.BIDDING)
+                .build());
+    }
+
+    private User newUser() {
+        int n = SEQ.incrementAndGet();
+        return userRepository.save(User.builder()
+                .email("accept" + n + "@test.local")
+                .phone("+1444" + String.format("%07d", n))
+                .password("x")
+                .firstName("Accept")
+                .lastName("User" + n)
+                .build());
+    }
+}
@@ -0,0 +1,243 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.exception.BadRequestException;
+import com.marketplace.rental.entity.Driver;
+import com.marketplace.rental.repository.DriverRepository;
+import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.ride.entity.Ride;
+import com.marketplace.ride.entity.RideBid;
+import com.marketplace.ride.entity.RideStatus;
+import com.marketplace.ride.repository.RideBidRepository;
+import com.marketplace.ride.repository.RideRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races ride lifecycle requests against each other on one ride and checks that the
+ * compare-and-set transitions let exactly one win: no double assignment, no bid left
+ * PENDING on a ride that is no longer open, no second active ride for a passenger.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RideConcurrencyTest {
+
+    private static final int ROUNDS = 10;
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private BidService bidService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private RideBidRepository rideBidRepository;
+
+    @Test
+    void concurrentAcceptsAssignExactlyOneDriver() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            User passenger = newUser();
+            Ride ride = newRide(passenger, RideStatus.BIDDING, null);
+            List<RideBid> bids = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                bids.add(newBid(ride, newDriver()));
+            }
+
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (RideBid bid : bids) {
+                tasks.add(() -> rideService.acceptBid(ride.getId(), bid.getId(), passenger.getId()));
+            }
+            assertThat(raceAndCountWins(tasks)).isEqualTo(1);
+
+            Ride after = rideRepository.findById(ride.getId()).orElseThrow();
+            assertThat(after.getStatus()).isEqualTo(RideStatus.ACCEPTED);
+            List<RideBid> accepted = rideBidRepository.findByRideIdOrderByBidAmountAsc(ride.getId()).stream()
+                    .filter(b -> "ACCEPTED".equals(b.getStatus()))
+                    .toList();
+            assertThat(accepted).hasSize(1);
+            assertThat(after.getAssignedDriver().getId()).isEqualTo(accepted.get(0).getDriver().getId());
+        }
+    }
+
+    @Test
+    void startRacingCancelsLetsExactlyOneWin() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            User passenger = newUser();
+            Driver driver = newDriver();
+            Ride ride = newRide(passenger, RideStatus.ACCEPTED, driver);
+            Long driverUserId = driver.getUser().getId();
+
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                tasks.add(() -> rideService.startRide(ride.getId(), driverUserId));
+                tasks.add(() -> rideService.cancelRideByPassenger(ride.getId(), "changed plans", passenger.getId()));
+                tasks.add(() -> rideService.cancelRideByDriver(ride.getId(), "running late", driverUserId));
+            }
+            assertThat(raceAndCountWins(tasks)).isEqualTo(1);
+
+            Ride after = rideRepository.findById(ride.getId()).orElseThrow();
+            if (after.getStatus() == RideStatus.IN_PROGRESS) {
+                assertThat(after.getStartedAt()).isNotNull();
+                assertThat(after.getCancelledAt()).isNull();
+            } else {
+                assertThat(after.getStatus()).isEqualTo(RideStatus.CANCELLED);
+                assertThat(after.getCancelledAt()).isNotNull();
+                assertThat(after.getStartedAt()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void bidsRacingAnAcceptAreNeverLeftPending() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            User passenger = newUser();
+            Ride ride = newRide(passenger, RideStatus.BIDDING, null);
+            RideBid first = newBid(ride, newDriver());
+            List<Driver> bidders = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                bidders.add(newDriver());
+            }
+
+            List<Callable<Object>> tasks = new ArrayList<>();
+            tasks.add(() -> rideService.acceptBid(ride.getId(), first.getId(), passenger.getId()));
+            for (Driver bidder : bidders) {
+                RideDTO.CreateBidRequest request = RideDTO.CreateBidRequest.builder()
+                        .bidAmount(new BigDecimal("12.00"))
+                        .build();
+                tasks.add(() -> bidService.placeBid(ride.getId(), request, bidder.getUser().getId()));
+            }
+            raceAndCountWins(tasks);
+
+            assertThat(rideRepository.findById(ride.getId()).orElseThrow().getStatus())
+                    .isEqualTo(RideStatus.ACCEPTED);
+            assertThat(rideBidRepository.findByRideIdOrderByBidAmountAsc(ride.getId()))
+                    .noneMatch(b -> "PENDING".equals(b.getStatus()));
+        }
+    }
+
+    @Test
+    void concurrentCreatesGiveThePassengerOneRide() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            User passenger = newUser();
+            RideDTO.CreateRideRequest request = RideDTO.CreateRideRequest.builder()
+                    .pickupAddress("A")
+                    .pickupLat(new BigDecimal("40.71280000"))
+                    .pickupLng(new BigDecimal("-74.00600000"))
+                    .dropoffAddress("B")
+                    .dropoffLat(new BigDecimal("40.73060000"))
+                    .dropoffLng(new BigDecimal("-73.93520000"))
+                    .build();
+
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> rideService.createRide(request, passenger.getId()));
+            }
+            assertThat(raceAndCountWins(tasks)).isEqualTo(1);
+            assertThat(rideRepository.findByPassengerIdAndStatus(passenger.getId(), RideStatus.SEARCHING,
+                    Pageable.unpaged()).getTotalElements()).isEqualTo(1);
+        }
+    }
+
+    // ─── HELPERS ─────────────────────────────────────────────
+
+    /** Starts all tasks at once; losers must fail with a 400 or a lock conflict, never anything else */
+    private static int raceAndCountWins(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            int wins = 0;
+            for (Future<Object> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                    wins++;
+                } catch (java.util.concurrent.ExecutionException ex) {
+                    assertThat(ex.getCause())
+                            .isInstanceOfAny(BadRequestException.class, ConcurrencyFailureException.class);
+                }
+            }
+            return wins;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private User newUser() {
+        int n = SEQ.incrementAndGet();
+        return userRepository.save(User.builder()
+                .email("race" + n + "@test.local")
+                .phone("+1555" + String.format("%07d", n))
+                .password("x")
+                .firstName("Race")
+                .lastName("User" + n)
+                .build());
+    }
+
+    private Driver newDriver() {
+        User user = newUser();
+        return driverRepository.save(Driver.builder()
+                .user(user)
+                .licenseNumber("LIC-" + user.getId())
+                .isAvailable(true)
+                .vehicleTypes("CAR")
+                .build());
+    }
+
+    private Ride newRide(User passenger, RideStatus status, Driver assignedDriver) {
+        return rideRepository.save(Ride.builder()
+                .passenger(passenger)
+                .pickupAddress("A")
+                .pickupLat(new BigDecimal("40.71280000"))
+                .pickupLng(new BigDecimal("-74.00600000"))
+                .dropoffAddress("B")
+                .dropoffLat(new BigDecimal("40.73060000"))
+                .dropoffLng(new BigDecimal("-73.93520000"))
+                .status(status)
+                .assignedDriver(assignedDriver)
+                .build());
+    }
+
+    private RideBid newBid(Ride ride, Driver driver) {
+        return rideBidRepository.save(RideBid.builder()
+                .ride(ride)
+                .driver(driver)
+                .bidAmount(new BigDecimal("10.00"))
+                .build());
+    }
+}
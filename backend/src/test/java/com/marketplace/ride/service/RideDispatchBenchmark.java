@@ -0,0 +1,180 @@
+package com.marketplace.ride.service;
+
+import com.marketplace.auth.entity.User;
+import com.marketplace.auth.repository.UserRepository;
+import com.marketplace.common.util.LatencySamples;
+import com.marketplace.ride.dto.RideDTO;
+import com.marketplace.tracking.service.DriverLocationIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency from ride creation to driver notification with {@code benchmark.drivers} online
+ * drivers (default 5000) around the pickup, all of them notified. Pushes are captured on
+ * the broker channel, where /user/{id}/queue/rides frames enter before session
+ * resolution, so no WebSocket clients are needed. Rides are created one after another.
+ *
+ * Run with {@code mvn test -Pbenchmark -Dtest=RideDispatchBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "ride.dispatch.max-drivers=${benchmark.drivers:5000}")
+@ActiveProfiles("test")
+class RideDispatchBenchmark {
+
+    private static final int DRIVERS = Integer.getInteger("benchmark.drivers", 5000);
+    private static final int RIDES = Integer.getInteger("benchmark.rides", 50);
+    private static final int WARMUP_RIDES = 10;
+    private static final AtomicInteger SEQ = new AtomicInteger();
+    private static final long FIRST_DRIVER_ID = 10_000_000L;
+    private static final double PICKUP_LAT = 31.5204;
+    private static final double PICKUP_LNG = 74.3587;
+    /** Inside ride.dispatch.radius-km */
+    private static final double SPREAD_KM = 4;
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DriverLocationIndex driverLocationIndex;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private AbstractSubscribableChannel brokerChannel;
+
+    private final AtomicReference<Delivery> delivery = new AtomicReference<>();
+    private final ChannelInterceptor capture = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            Delivery current = delivery.get();
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (current != null && destination != null
+                    && destination.endsWith(RideDispatchService.DRIVER_RIDES_QUEUE)
+                    && message.getPayload() instanceof byte[] payload
+                    && new String(payload, StandardCharsets.UTF_8).contains("\"status\":\"SEARCHING\"")) {
+                current.arrived();
+            }
+            return message;
+        }
+    };
+
+    /** Notifications of the ride in flight */
+    private static final class Delivery {
+        final CountDownLatch all = new CountDownLatch(DRIVERS);
+        final AtomicLong firstAt = new AtomicLong();
+        final AtomicLong lastAt = new AtomicLong();
+
+        void arrived() {
+            long now = System.nanoTime();
+            firstAt.compareAndSet(0, now);
+            lastAt.set(now);
+            all.countDown();
+        }
+    }
+
+    @BeforeEach
+    void drivers() {
+        Random random = new Random(42);
+        double degPerKm = 1 / 111.0;
+        for (int i = 0; i < DRIVERS; i++) {
+            double distance = Math.sqrt(random.nextDouble()) * SPREAD_KM * degPerKm;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            long id = FIRST_DRIVER_ID + i;
+            driverLocationIndex.put(new DriverLocationIndex.TrackedDriver(id, id, "Driver " + i, "CAR",
+                    new BigDecimal("4.80"), coordinate(PICKUP_LAT + distance * Math.sin(angle)),
+                    coordinate(PICKUP_LNG + distance * Math.cos(angle)), null, null, LocalDateTime.now()));
+        }
+        brokerChannel.addInterceptor(capture);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        brokerChannel.removeInterceptor(capture);
+        for (int i = 0; i < DRIVERS; i++) {
+            driverLocationIndex.remove(FIRST_DRIVER_ID + i);
+        }
+    }
+
+    @Test
+    void creationToNotificationLatency() throws Exception {
+        LatencySamples create = new LatencySamples();
+        LatencySamples toFirst = new LatencySamples();
+        LatencySamples toLast = new LatencySamples();
+
+        for (int ride = 0; ride < WARMUP_RIDES + RIDES; ride++) {
+            Long passengerId = newPassenger().getId();
+            Delivery current = new Delivery();
+            delivery.set(current);
+
+            long start = System.nanoTime();
+            rideService.createRide(request(), passengerId);
+            long created = System.nanoTime();
+            assertThat(current.all.await(60, TimeUnit.SECONDS)).isTrue();
+            delivery.set(null);
+
+            if (ride >= WARMUP_RIDES) {
+                create.record(created - start);
+                toFirst.record(current.firstAt.get() - start);
+                toLast.record(current.lastAt.get() - start);
+            }
+        }
+
+        System.out.printf("%n%d drivers notified per ride, %d rides%n", DRIVERS, RIDES);
+        System.out.printf("%-22s %s%n", "", LatencySamples.summaryHeader());
+        System.out.printf("%-22s %s%n", "createRide returns", create.summary());
+        System.out.printf("%-22s %s%n", "first driver pushed", toFirst.summary());
+        System.out.printf("%-22s %s%n", "last driver pushed", toLast.summary());
+    }
+
+    private User newPassenger() {
+        int n = SEQ.incrementAndGet();
+        return userRepository.save(User.builder()
+                .email("dispatch" + n + "@test.local")
+                .phone("+1666" + String.format("%07d", n))
+                .password("x")
+                .firstName("Dispatch")
+                .lastName("Passenger" + n)
+                .build());
+    }
+
+    private static RideDTO.CreateRideRequest request() {
+        return RideDTO.CreateRideRequest.builder()
+                .pickupAddress("A")
+                .pickupLat(coordinate(PICKUP_LAT))
+                .pickupLng(coordinate(PICKUP_LNG))
+                .dropoffAddress("B")
+                .dropoffLat(coordinate(PICKUP_LAT + 0.05))
+                .dropoffLng(coordinate(PICKUP_LNG + 0.05))
+                .build();
+    }
+
+    private static BigDecimal coordinate(double value) {
+        return BigDecimal.valueOf(value).setScale(8, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,132 @@
+package com.marketplace.tracking.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Broadcast throughput of the configured broker (simple by default; pass
+ * -Dwebsocket.broker.mode=relay and the relay settings to measure an external broker):
+ * {@code benchmark.subscribers} STOMP sessions subscribe to one driver topic, the server
+ * publishes {@code benchmark.frames} location frames to it, and the time until every
+ * session has received every frame is reported.
+ *
+ * Run with {@code mvn test -Pbenchmark -Dtest=BrokerBroadcastBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class BrokerBroadcastBenchmark {
+
+    private static final int[] SUBSCRIBERS = {10, 100, Integer.getInteger("benchmark.subscribers", 1000)};
+    private static final int FRAMES = Integer.getInteger("benchmark.frames", 200);
+    private static final String TOPIC = "/topic/driver/1/location";
+    private static final Map<String, Object> FRAME = Map.of(
+            "type", "DELTA", "driverId", 1, "latitude", 31.5204, "longitude", 74.3587, "ts", 0L);
+    private static final Map<String, Object> PROBE = Map.of("type", "PROBE", "driverId", 1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private WebSocketStompClient stompClient;
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void client() {
+        stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    }
+
+    @AfterEach
+    void disconnect() {
+        sessions.forEach(StompSession::disconnect);
+        sessions.clear();
+        stompClient.stop();
+    }
+
+    @Test
+    void broadcastThroughputPerSubscriberCount() throws Exception {
+        System.out.printf("%n%-12s %8s %12s %16s%n", "subscribers", "frames", "elapsed ms", "deliveries/s");
+        AtomicReference<CountDownLatch> ready = new AtomicReference<>();
+        AtomicReference<CountDownLatch> delivered = new AtomicReference<>(new CountDownLatch(0));
+        for (int subscribers : SUBSCRIBERS) {
+            ready.set(new CountDownLatch(subscribers - sessions.size()));
+            while (sessions.size() < subscribers) {
+                sessions.add(subscribe(ready, delivered));
+            }
+            // The simple broker sends no receipts: probe until every new subscription has seen a frame
+            while (!ready.get().await(50, TimeUnit.MILLISECONDS)) {
+                messagingTemplate.convertAndSend(TOPIC, PROBE);
+            }
+
+            // Warm-up round, then the measured one
+            for (int round = 0; round < 2; round++) {
+                delivered.set(new CountDownLatch(subscribers * FRAMES));
+                long start = System.nanoTime();
+                for (int i = 0; i < FRAMES; i++) {
+                    messagingTemplate.convertAndSend(TOPIC, FRAME);
+                }
+                assertThat(delivered.get().await(120, TimeUnit.SECONDS)).isTrue();
+                long elapsedNanos = System.nanoTime() - start;
+                if (round == 1) {
+                    System.out.printf("%-12d %8d %12.1f %16.0f%n", subscribers, FRAMES, elapsedNanos / 1e6,
+                            (double) subscribers * FRAMES / (elapsedNanos / 1e9));
+                }
+            }
+        }
+    }
+
+    /** One STOMP session on the driver topic; counts its first probe, then every location frame */
+    private StompSession subscribe(AtomicReference<CountDownLatch> ready,
+                                   AtomicReference<CountDownLatch> delivered) throws Exception {
+        StompSession session = stompClient.connectAsync("http://localhost:" + port + "/ws",
+                new StompSessionHandlerAdapter() {
+                }).get(10, TimeUnit.SECONDS);
+        AtomicBoolean probed = new AtomicBoolean();
+        session.subscribe(TOPIC, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                if (new String((byte[]) payload, StandardCharsets.UTF_8).contains("PROBE")) {
+                    if (!probed.getAndSet(true)) ready.get().countDown();
+                } else {
+                    delivered.get().countDown();
+                }
+            }
+        });
+        return session;
+    }
+}
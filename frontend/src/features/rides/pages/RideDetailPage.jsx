@@ -24,13 +24,12 @@ export default function RideDetailPage() {
     useEffect(() => {
         if (!id) return;
 
-        // Subscribe to incoming bids for this ride
-        const unsubBids = subscribe(`/topic/ride/${id}/bids`, (newBid) => {
-            setBids(prev => {
-                // Avoid duplicates
-                if (prev.find(b => b.id === newBid.id)) return prev;
-                return [newBid, ...prev];
-            });
+        // Live pending bids for this ride (full list, cheapest first, on every change)
+        let lastVersion = -1;
+        const unsubBids = subscribe(`/user/queue/rides/${id}/bids`, (event) => {
+            if (event.version <= lastVersion) return; // out-of-order frame
+            lastVersion = event.version;
+            setBids(event.bids || []);
         });
 
         // Subscribe to ride status updates (e.g. if driver starts it or it's cancelled)
@@ -41,9 +40,18 @@ export default function RideDetailPage() {
             }
         });
 
+        // Status pushes addressed to this passenger (e.g. the ride expired unmatched)
+        const unsubOwnStatus = subscribe(`/user/queue/rides/${id}/status`, (event) => {
+            setRide((prev) => (prev ? { ...prev, status: event.status } : prev));
+            if (event.status === 'CANCELLED') {
+                setBids([]);
+            }
+        });
+
         return () => {
             unsubBids();
             unsubStatus();
+            unsubOwnStatus();
         };
     }, [id, subscribe, navigate]);
 
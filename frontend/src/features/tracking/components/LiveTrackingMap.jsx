@@ -91,9 +91,12 @@ export default function LiveTrackingMap({
     // Subscribe to the specific assigned driver's location topic
     useEffect(() => {
         if (!driverId) return;
+        // Server sends a full SNAPSHOT first, then DELTA/OFFLINE frames carrying only changed fields
         const unsub = subscribe(`/topic/driver/${driverId}/location`, (data) => {
-            setDriverPos([parseFloat(data.latitude), parseFloat(data.longitude)]);
-            setDriverInfo(data);
+            if (data.latitude != null && data.longitude != null) {
+                setDriverPos([parseFloat(data.latitude), parseFloat(data.longitude)]);
+            }
+            setDriverInfo((prev) => (data.type === 'SNAPSHOT' ? data : { ...prev, ...data }));
         });
         return unsub;
     }, [driverId, subscribe]);